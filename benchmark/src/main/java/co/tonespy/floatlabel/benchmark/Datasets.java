@@ -0,0 +1,71 @@
+package co.tonespy.floatlabel.benchmark;
+
+import java.util.Random;
+
+/**
+ * Deterministic, realistic looking values for the benchmarks: two or three word names
+ * built from common syllables, with the length spread and prefix sharing of a city or
+ * contact list.
+ */
+final class Datasets {
+
+    private static final String[] SYLLABLES = {
+            "a", "ba", "da", "de", "fe", "gu", "ka", "ko", "la", "lu", "ma", "mi", "na", "ne",
+            "o", "pa", "ra", "ri", "sa", "se", "ta", "to", "u", "wa", "ya", "yo", "zu"
+    };
+    private static final String[] SUFFIXES = {
+            "", "", "", " Road", " Street", " Close", " Avenue", " Estate", " North", " South"
+    };
+
+    private Datasets() {
+    }
+
+    /**
+     * Returns a generator of {@code count} values; equal seeds give equal sequences.
+     */
+    static Names names(int count, long seed) {
+        return new Names(count, seed);
+    }
+
+    static String[] namesArray(int count, long seed) {
+        Names names = names(count, seed);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = names.next();
+        }
+        return values;
+    }
+
+    static final class Names {
+        private final Random mRandom;
+        private final StringBuilder mBuilder = new StringBuilder(48);
+        private int mRemaining;
+
+        Names(int count, long seed) {
+            mRandom = new Random(seed);
+            mRemaining = count;
+        }
+
+        boolean hasNext() {
+            return mRemaining > 0;
+        }
+
+        String next() {
+            mRemaining--;
+            mBuilder.setLength(0);
+            appendWord(mBuilder);
+            mBuilder.append(' ');
+            appendWord(mBuilder);
+            mBuilder.append(SUFFIXES[mRandom.nextInt(SUFFIXES.length)]);
+            return mBuilder.toString();
+        }
+
+        private void appendWord(StringBuilder out) {
+            int start = out.length();
+            for (int i = 0, count = 2 + mRandom.nextInt(3); i < count; i++) {
+                out.append(SYLLABLES[mRandom.nextInt(SYLLABLES.length)]);
+            }
+            out.setCharAt(start, Character.toUpperCase(out.charAt(start)));
+        }
+    }
+}
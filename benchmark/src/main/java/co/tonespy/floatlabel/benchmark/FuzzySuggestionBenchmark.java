@@ -0,0 +1,63 @@
+package co.tonespy.floatlabel.benchmark;
+
+import co.tonespy.floatlabel.FuzzySuggestionSource;
+import co.tonespy.floatlabel.PackedStringStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of one {@link FuzzySuggestionSource} query for the top 10 of a generated name list:
+ * a short word prefix, a longer prefix, an abbreviation and a prefix with one typo.
+ *
+ * <p>Run with {@code ./gradlew :benchmark:jmh -Pjmh=FuzzySuggestion}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FuzzySuggestionBenchmark {
+
+    private static final int LIMIT = 10;
+
+    @Param({ "10000", "100000" })
+    public int size;
+
+    @Param({ "ko", "tamina", "bklro", "kolxa" })
+    public String query;
+
+    private FuzzySuggestionSource mSource;
+    private final List<String> mOut = new ArrayList<String>(LIMIT);
+
+    @Setup
+    public void setUp() {
+        Datasets.Names names = Datasets.names(size, 42);
+        PackedStringStore.Builder values = new PackedStringStore.Builder(size);
+        while (names.hasNext()) {
+            values.add(names.next());
+        }
+        mSource = new FuzzySuggestionSource(values.build());
+    }
+
+    @Benchmark
+    public List<String> query() {
+        mOut.clear();
+        mSource.query(query, LIMIT, mOut);
+        return mOut;
+    }
+}
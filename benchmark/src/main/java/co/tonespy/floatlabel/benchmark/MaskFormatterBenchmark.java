@@ -0,0 +1,126 @@
+package co.tonespy.floatlabel.benchmark;
+
+import co.tonespy.floatlabel.CharArrayEditable;
+import co.tonespy.floatlabel.InputMask;
+import co.tonespy.floatlabel.MaskFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to type a whole value into a masked field and erase it again, one keystroke at a
+ * time: with {@link MaskFormatter} editing in place, and with the formatted string rebuilt
+ * from the entered characters and swapped in on every keystroke, as a naive watcher would.
+ *
+ * <p>Run with {@code ./gradlew :benchmark:jmh -Pjmh=MaskFormatter}, adding
+ * {@code -prof gc} to the arguments to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MaskFormatterBenchmark {
+
+    @Param({ "phone", "card", "iban" })
+    public String mask;
+
+    private InputMask mMask;
+    private String mKeys;
+    private MaskFormatter mFormatter;
+    private CharArrayEditable mText;
+
+    @Setup
+    public void setUp() {
+        if ("phone".equals(mask)) {
+            mMask = new InputMask("(###) ###-####");
+            mKeys = "5551234567";
+        } else if ("card".equals(mask)) {
+            mMask = new InputMask("#### #### #### ####");
+            mKeys = "4111111111111111";
+        } else {
+            mMask = new InputMask("AA** **** **** **** **** **");
+            mKeys = "GB82WEST12345698765432";
+        }
+        mFormatter = new MaskFormatter(mMask);
+        mText = new CharArrayEditable(mMask.length() + 1);
+    }
+
+    @Benchmark
+    public int inPlace() {
+        CharArrayEditable text = mText;
+        MaskFormatter formatter = mFormatter;
+        text.clear();
+        for (int i = 0; i < mKeys.length(); i++) {
+            int start = text.length();
+            formatter.beforeTextChanged(text, start, 0, 1);
+            text.insert(start, mKeys, i, i + 1);
+            formatter.onTextChanged(text, start, 0, 1);
+            formatter.afterTextChanged(text);
+        }
+        while (text.length() > 0) {
+            int end = text.length();
+            formatter.beforeTextChanged(text, end - 1, 1, 0);
+            text.delete(end - 1, end);
+            formatter.onTextChanged(text, end - 1, 1, 0);
+            formatter.afterTextChanged(text);
+        }
+        return text.length();
+    }
+
+    @Benchmark
+    public int rebuild() {
+        CharArrayEditable text = mText;
+        text.clear();
+        for (int i = 0; i < mKeys.length(); i++) {
+            text.insert(text.length(), mKeys, i, i + 1);
+            String formatted = format(rawOf(text));
+            text.replace(0, text.length(), formatted);
+        }
+        while (text.length() > 0) {
+            String raw = rawOf(text);
+            String formatted = format(raw.substring(0, raw.length() - 1));
+            text.replace(0, text.length(), formatted);
+        }
+        return text.length();
+    }
+
+    /**
+     * The entered characters of {@code text}, which may hold one unformatted keystroke.
+     */
+    private String rawOf(CharSequence text) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (i >= mMask.length() || mMask.isSlot(i) || c != mMask.getPattern().charAt(i)) {
+                raw.append(c);
+            }
+        }
+        return raw.toString();
+    }
+
+    private String format(String raw) {
+        StringBuilder out = new StringBuilder(mMask.length());
+        int next = 0;
+        for (int i = 0; i < mMask.length() && next < raw.length(); i++) {
+            if (mMask.isSlot(i)) {
+                out.append(raw.charAt(next++));
+            } else {
+                out.append(mMask.getPattern().charAt(i));
+            }
+        }
+        return out.toString();
+    }
+}
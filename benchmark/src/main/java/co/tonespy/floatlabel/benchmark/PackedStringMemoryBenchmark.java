@@ -0,0 +1,100 @@
+package co.tonespy.floatlabel.benchmark;
+
+import co.tonespy.floatlabel.PackedStringStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by a dataset held as the {@code List<String>} behind an
+ * {@code ArrayAdapter<String>} and as a {@link PackedStringStore}. Each structure is built
+ * from freshly generated values and measured after full collections, several times, and
+ * the smallest reading is reported.
+ *
+ * <p>Run with {@code ./gradlew :benchmark:memoryBenchmark}.
+ */
+public final class PackedStringMemoryBenchmark {
+
+    private static final int[] SIZES = { 10000, 100000, 500000 };
+    private static final int ROUNDS = 5;
+    private static final long SEED = 42;
+
+    private static Object sRetained;
+
+    private PackedStringMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("entries      List<String>      PackedStringStore    saved");
+        for (int size : SIZES) {
+            long list = Long.MAX_VALUE;
+            long packed = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                list = Math.min(list, retained(new ListFactory(size)));
+                packed = Math.min(packed, retained(new PackedFactory(size)));
+            }
+            System.out.println(String.format("%7d  %10d B %5.1f B/e  %10d B %5.1f B/e  %5.1f%%",
+                    size, list, (double) list / size, packed, (double) packed / size,
+                    100.0 * (list - packed) / list));
+        }
+    }
+
+    private static long retained(Factory factory) throws InterruptedException {
+        long before = usedHeap();
+        sRetained = factory.create();
+        long after = usedHeap();
+        sRetained = null;
+        return after - before;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private interface Factory {
+        Object create();
+    }
+
+    private static final class ListFactory implements Factory {
+        private final int mSize;
+
+        ListFactory(int size) {
+            mSize = size;
+        }
+
+        @Override
+        public Object create() {
+            Datasets.Names names = Datasets.names(mSize, SEED);
+            List<String> values = new ArrayList<String>(mSize);
+            while (names.hasNext()) {
+                values.add(names.next());
+            }
+            return values;
+        }
+    }
+
+    private static final class PackedFactory implements Factory {
+        private final int mSize;
+
+        PackedFactory(int size) {
+            mSize = size;
+        }
+
+        @Override
+        public Object create() {
+            Datasets.Names names = Datasets.names(mSize, SEED);
+            PackedStringStore.Builder builder = new PackedStringStore.Builder(mSize);
+            while (names.hasNext()) {
+                builder.add(names.next());
+            }
+            return builder.build();
+        }
+    }
+}
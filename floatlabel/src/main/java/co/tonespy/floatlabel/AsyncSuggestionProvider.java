@@ -0,0 +1,26 @@
+package co.tonespy.floatlabel;
+
+import java.util.List;
+
+/**
+ * Asynchronous counterpart of {@link SuggestionSource}, e.g. for a server-side search API.
+ * Wrap it in a {@link CachingSuggestionProvider} to avoid asking the backend again for
+ * queries it has already answered.
+ */
+public interface AsyncSuggestionProvider {
+
+    /**
+     * Receives the outcome of one request. Exactly one method is called, on any thread.
+     */
+    interface Callback {
+        void onSuggestions(List<String> suggestions);
+
+        void onFailure(Throwable error);
+    }
+
+    /**
+     * Starts fetching at most {@code limit} suggestions for {@code query}, best match first.
+     * Called from a background thread.
+     */
+    void requestSuggestions(String query, int limit, Callback callback);
+}
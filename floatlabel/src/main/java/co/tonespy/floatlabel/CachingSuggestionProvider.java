@@ -0,0 +1,248 @@
+package co.tonespy.floatlabel;
+
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AsyncSuggestionProvider} decorator with a bounded LRU cache of query results. Cached
+ * results expire after a time-to-live.
+ *
+ * <p>Queries are keyed by their {@link SuggestionIndex#normalize normalised} form. A query is
+ * answered without the backend when:
+ * <ul>
+ * <li>its own results are cached, or</li>
+ * <li>a shorter prefix of it returned fewer results than were asked for. That list is then
+ * known to hold every match of the prefix, so it is filtered locally with
+ * {@link #matches}.</li>
+ * </ul>
+ * A query that is already in flight is not sent again; later callers wait for the same
+ * response. Hit counters are kept so the cache's effectiveness can be checked.
+ *
+ * <p>Refining a prefix locally only returns what the backend would have returned if the
+ * backend's matches for a query are a subset of its matches for every prefix of that
+ * query, {@link #matches} selects exactly that subset, and the backend's order does not
+ * depend on the query. The default {@link #matches} assumes a substring search. For any
+ * other backend, override it or turn refinement off with {@link #setRefinePrefixes}.
+ */
+public class CachingSuggestionProvider implements AsyncSuggestionProvider {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    public static final long DEFAULT_TIME_TO_LIVE = 5 * 60 * 1000;
+
+    private final AsyncSuggestionProvider mBackend;
+    private final LruCache<String, Entry> mCache;
+    private final long mTimeToLive;
+
+    private final Map<String, InFlight> mInFlight = new HashMap<String, InFlight>();
+    private volatile boolean mRefinePrefixes = true;
+
+    private final AtomicInteger mHitCount = new AtomicInteger();
+    private final AtomicInteger mPrefixHitCount = new AtomicInteger();
+    private final AtomicInteger mJoinCount = new AtomicInteger();
+    private final AtomicInteger mMissCount = new AtomicInteger();
+
+    public CachingSuggestionProvider(AsyncSuggestionProvider backend) {
+        this(backend, DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param maxEntries number of queries whose results are kept
+     * @param timeToLive milliseconds after which cached results are fetched again
+     */
+    public CachingSuggestionProvider(AsyncSuggestionProvider backend, int maxEntries,
+                                     long timeToLive) {
+        mBackend = backend;
+        mCache = new LruCache<String, Entry>(maxEntries);
+        mTimeToLive = timeToLive;
+    }
+
+    @Override
+    public void requestSuggestions(String query, int limit, Callback callback) {
+        String key = query != null ? SuggestionIndex.normalize(query) : "";
+
+        Entry entry = getFresh(key);
+        if (entry != null && (entry.mComplete || entry.mLimit >= limit)) {
+            mHitCount.incrementAndGet();
+            callback.onSuggestions(truncate(entry.mSuggestions, limit));
+            return;
+        }
+
+        List<String> refined = mRefinePrefixes ? refineFromPrefix(key, limit) : null;
+        if (refined != null) {
+            mPrefixHitCount.incrementAndGet();
+            callback.onSuggestions(refined);
+            return;
+        }
+
+        InFlight request;
+        synchronized (mInFlight) {
+            request = mInFlight.get(key);
+            if (request != null && request.mLimit >= limit) {
+                mJoinCount.incrementAndGet();
+                request.add(callback, limit);
+                return;
+            }
+            request = new InFlight(key, limit);
+            request.add(callback, limit);
+            mInFlight.put(key, request);
+        }
+        mMissCount.incrementAndGet();
+        mBackend.requestSuggestions(query, limit, request);
+    }
+
+    /**
+     * Whether {@code suggestion} matches {@code query}, both normalised, when refining the
+     * complete results of a prefix of {@code query} locally. Must return true for exactly
+     * the suggestions the backend would return for {@code query}. The refined results keep
+     * the prefix's order. Matches substrings by default, which is only correct for a
+     * backend that returns every suggestion containing the query.
+     */
+    protected boolean matches(String suggestion, String query) {
+        return suggestion.contains(query);
+    }
+
+    /**
+     * Whether queries may be answered by refining the cached results of a prefix, true by
+     * default. Turn it off when {@link #matches} cannot mirror the backend, e.g. when the
+     * backend ranks or matches fuzzily.
+     */
+    public void setRefinePrefixes(boolean refine) {
+        mRefinePrefixes = refine;
+    }
+
+    /**
+     * Drops every cached result. Requests in flight are not affected.
+     */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    /**
+     * Requests answered from their own cached results.
+     */
+    public int getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * Requests answered by refining the cached results of a prefix.
+     */
+    public int getPrefixHitCount() {
+        return mPrefixHitCount.get();
+    }
+
+    /**
+     * Requests that waited for an identical request already in flight.
+     */
+    public int getJoinCount() {
+        return mJoinCount.get();
+    }
+
+    /**
+     * Requests sent to the backend.
+     */
+    public int getMissCount() {
+        return mMissCount.get();
+    }
+
+    private Entry getFresh(String key) {
+        Entry entry = mCache.get(key);
+        if (entry != null && SystemClock.elapsedRealtime() - entry.mTime > mTimeToLive) {
+            mCache.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private List<String> refineFromPrefix(String key, int limit) {
+        for (int length = key.length() - 1; length > 0; length--) {
+            Entry entry = getFresh(key.substring(0, length));
+            if (entry == null || !entry.mComplete) {
+                continue;
+            }
+            List<String> refined =
+                    new ArrayList<String>(Math.min(limit, entry.mSuggestions.size()));
+            for (int i = 0, count = entry.mSuggestions.size(); i < count; i++) {
+                String suggestion = entry.mSuggestions.get(i);
+                if (matches(SuggestionIndex.normalize(suggestion), key)) {
+                    refined.add(suggestion);
+                }
+            }
+            // Every match of the refined query is in the list, so the subset is complete too.
+            mCache.put(key, new Entry(Collections.unmodifiableList(refined), limit, true));
+            return truncate(refined, limit);
+        }
+        return null;
+    }
+
+    private static List<String> truncate(List<String> suggestions, int limit) {
+        return suggestions.size() <= limit ? suggestions : suggestions.subList(0, limit);
+    }
+
+    private static final class Entry {
+        final List<String> mSuggestions;
+        final int mLimit;
+        /** Whether the backend returned fewer results than asked for, i.e. all of them. */
+        final boolean mComplete;
+        final long mTime;
+
+        Entry(List<String> suggestions, int limit, boolean complete) {
+            mSuggestions = suggestions;
+            mLimit = limit;
+            mComplete = complete;
+            mTime = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private final class InFlight implements Callback {
+        final String mKey;
+        final int mLimit;
+        private final List<Callback> mCallbacks = new ArrayList<Callback>(2);
+        private final List<Integer> mLimits = new ArrayList<Integer>(2);
+
+        InFlight(String key, int limit) {
+            mKey = key;
+            mLimit = limit;
+        }
+
+        void add(Callback callback, int limit) {
+            mCallbacks.add(callback);
+            mLimits.add(limit);
+        }
+
+        @Override
+        public void onSuggestions(List<String> suggestions) {
+            List<String> results = Collections.unmodifiableList(new ArrayList<String>(suggestions));
+            mCache.put(mKey, new Entry(results, mLimit, results.size() < mLimit));
+            for (int i = 0, count = finish(); i < count; i++) {
+                mCallbacks.get(i).onSuggestions(truncate(results, mLimits.get(i)));
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            for (int i = 0, count = finish(); i < count; i++) {
+                mCallbacks.get(i).onFailure(error);
+            }
+        }
+
+        /**
+         * Stops new callers from joining and returns how many are waiting.
+         */
+        private int finish() {
+            synchronized (mInFlight) {
+                if (mInFlight.get(mKey) == this) {
+                    mInFlight.remove(mKey);
+                }
+                return mCallbacks.size();
+            }
+        }
+    }
+}
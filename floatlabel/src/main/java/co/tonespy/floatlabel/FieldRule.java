@@ -0,0 +1,15 @@
+package co.tonespy.floatlabel;
+
+/**
+ * Validation rule of one form field, run by {@link FormValidator} on a background thread.
+ * Rules must be stateless, or at least thread-safe; {@link FieldRules} builds the common
+ * ones, with any pattern compiled once up front.
+ */
+public interface FieldRule {
+
+    /**
+     * Returns the error of {@code field} in {@code form}, or null if it is valid. Rules that
+     * read other fields must be registered with those fields as dependencies.
+     */
+    CharSequence validate(FormSnapshot form, int field);
+}
@@ -0,0 +1,129 @@
+package co.tonespy.floatlabel;
+
+import java.util.regex.Pattern;
+
+/**
+ * Factories for common {@link FieldRule}s. Every rule is built once, with any pattern
+ * compiled up front, and can be shared across fields and forms. Rules other than
+ * {@link #required} accept an empty field, so they compose with it through {@link #all}.
+ */
+public final class FieldRules {
+
+    private FieldRules() {
+    }
+
+    /**
+     * Fails when the field has no text and no selected option.
+     */
+    public static FieldRule required(final CharSequence error) {
+        return new FieldRule() {
+
+            @Override
+            public CharSequence validate(FormSnapshot form, int field) {
+                return form.getText(field).trim().length() == 0
+                        && form.getSelectedId(field) == IdOptionDataSource.NO_ID ? error : null;
+            }
+        };
+    }
+
+    /**
+     * Fails when the text does not entirely match {@code regex}.
+     */
+    public static FieldRule pattern(String regex, final CharSequence error) {
+        final Pattern pattern = Pattern.compile(regex);
+        return new FieldRule() {
+
+            @Override
+            public CharSequence validate(FormSnapshot form, int field) {
+                String text = form.getText(field);
+                return text.length() > 0 && !pattern.matcher(text).matches() ? error : null;
+            }
+        };
+    }
+
+    /**
+     * Fails when the text is shorter than {@code min} or longer than {@code max} characters.
+     */
+    public static FieldRule length(final int min, final int max, final CharSequence error) {
+        return new FieldRule() {
+
+            @Override
+            public CharSequence validate(FormSnapshot form, int field) {
+                int length = form.getText(field).length();
+                return length > 0 && (length < min || length > max) ? error : null;
+            }
+        };
+    }
+
+    /**
+     * Fails when the digits of the text do not pass the Luhn checksum used by card numbers.
+     * Spaces and dashes are ignored.
+     */
+    public static FieldRule luhn(final CharSequence error) {
+        return new FieldRule() {
+
+            @Override
+            public CharSequence validate(FormSnapshot form, int field) {
+                String text = form.getText(field);
+                if (text.length() == 0) {
+                    return null;
+                }
+                int sum = 0;
+                int digits = 0;
+                for (int i = text.length() - 1; i >= 0; i--) {
+                    char c = text.charAt(i);
+                    if (c == ' ' || c == '-') {
+                        continue;
+                    }
+                    if (c < '0' || c > '9') {
+                        return error;
+                    }
+                    int digit = c - '0';
+                    if ((digits++ & 1) == 1) {
+                        digit *= 2;
+                        if (digit > 9) {
+                            digit -= 9;
+                        }
+                    }
+                    sum += digit;
+                }
+                return digits < 2 || sum % 10 != 0 ? error : null;
+            }
+        };
+    }
+
+    /**
+     * Fails when the text differs from that of {@code other}, e.g. a password confirmation.
+     * Register the field with {@code other} as a dependency.
+     */
+    public static FieldRule sameAs(final int other, final CharSequence error) {
+        return new FieldRule() {
+
+            @Override
+            public CharSequence validate(FormSnapshot form, int field) {
+                String text = form.getText(field);
+                return text.length() > 0 && !text.equals(form.getText(other)) ? error : null;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code rules} in order and returns the first error.
+     */
+    public static FieldRule all(final FieldRule... rules) {
+        final FieldRule[] copy = rules.clone();
+        return new FieldRule() {
+
+            @Override
+            public CharSequence validate(FormSnapshot form, int field) {
+                for (FieldRule rule : copy) {
+                    CharSequence error = rule.validate(form, field);
+                    if (error != null) {
+                        return error;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.widget.AutoCompleteTextView;
+
+/**
+ * Single-view counterpart of {@link FloatLabelAutoCompleteTextView}. The floating label is
+ * drawn and animated on the AutoCompleteTextView's own canvas, so each field is one View to
+ * measure, lay out and draw. Accepts the same {@code FloatLabelTextView} attributes.
+ */
+public class FloatLabelAutoCompleteEditText extends AutoCompleteTextView {
+    private static final String TAG = "FloatLabelAutoCompleteEditText";
+
+    private static final int HINT_DEFAULT_COLOR = 0xFF808080;
+
+    private InlineFloatLabel mFloatLabel;
+
+    public FloatLabelAutoCompleteEditText(Context context) {
+        this(context, (AttributeSet) null);
+    }
+
+    public FloatLabelAutoCompleteEditText(Context context, AttributeSet attrs) {
+        this(context, attrs, android.R.attr.autoCompleteTextViewStyle);
+    }
+
+    public FloatLabelAutoCompleteEditText(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(FloatLabelStyle.obtain(context, attrs, defStyleAttr, HINT_DEFAULT_COLOR));
+    }
+
+    /**
+     * Creates the field from an already resolved style, skipping attribute parsing.
+     */
+    public FloatLabelAutoCompleteEditText(Context context, FloatLabelStyle style) {
+        super(context, null, android.R.attr.autoCompleteTextViewStyle);
+        init(style);
+    }
+
+    private void init(FloatLabelStyle style) {
+        mFloatLabel = new InlineFloatLabel(this);
+        mFloatLabel.applyStyle(style);
+        addTextChangedListener(mFloatLabel);
+        mFloatLabel.setContentPresent(length() > 0);
+    }
+
+    @Override
+    public int getCompoundPaddingTop() {
+        int padding = super.getCompoundPaddingTop();
+        return mFloatLabel == null ? padding : padding + mFloatLabel.getReservedHeight();
+    }
+
+    @Override
+    protected void onFocusChanged(boolean focused, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(focused, direction, previouslyFocusedRect);
+        mFloatLabel.setFocused(focused);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        mFloatLabel.draw(canvas, getScrollX() + getCompoundPaddingLeft(),
+                getScrollY() + getPaddingTop());
+    }
+
+    public FloatLabelController getLabelController() {
+        return mFloatLabel;
+    }
+
+    public void setAnimationDuration(long duration) {
+        mFloatLabel.setAnimationDuration(duration);
+    }
+
+    /**
+     * Shows suggestions from {@code source}, e.g. a shared {@link SuggestionIndex}.
+     */
+    public void setSuggestionSource(SuggestionSource source) {
+        setAdapter(new SuggestionAdapter(getContext(), source));
+    }
+
+    /**
+     * Fetches suggestions asynchronously from {@code provider}.
+     */
+    public void setSuggestionProvider(AsyncSuggestionProvider provider) {
+        setAdapter(new SuggestionAdapter(getContext(), provider));
+    }
+
+    /**
+     * Puts the label straight into the state of the restored text instead of animating it.
+     */
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        super.onRestoreInstanceState(state);
+        mFloatLabel.jumpToCurrentState();
+    }
+}
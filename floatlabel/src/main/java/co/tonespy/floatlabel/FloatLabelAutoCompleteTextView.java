@@ -3,27 +3,25 @@ package co.tonespy.floatlabel;
 /**
  * Created by mac on 4/29/15.
  */
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.ColorStateList;
-import android.content.res.TypedArray;
 import android.graphics.Typeface;
+import android.os.Build;
+import android.os.Parcelable;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.text.method.KeyListener;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.LinearLayout;
-import android.widget.TextView;
-
-import com.nineoldandroids.animation.Animator;
-import com.nineoldandroids.animation.AnimatorSet;
-import com.nineoldandroids.animation.ArgbEvaluator;
-import com.nineoldandroids.animation.ObjectAnimator;
-import com.nineoldandroids.animation.ValueAnimator;
 
 /**
  * Created by mac on 3/16/15.
@@ -31,148 +29,87 @@ import com.nineoldandroids.animation.ValueAnimator;
 public class FloatLabelAutoCompleteTextView extends LinearLayout {
     private static final String TAG = "FloatLabelTextView";
 
-    private static long ANIMATION_DURATION = 400;
     private static int HINT_DEFAULT_COLOR = 0xFF006363;
-    private static final int HINT_DEFAULT_COLOR_DISABLED = 0xFF2F6CB3;
-    private static int HINT_DEFAULT_SIZE = 13;
 
-    private TextView mHintView;
+    private ViewLabelController mLabel;
     private AutoCompleteTextView mEditText;
-
-    private int mHintColor;
-
-    private AnimatorSet mEntranceAnimation = null;
-    private AnimatorSet mExitAnimation = null;
-    private ValueAnimator mAddColorAnimation = null;
-    private ValueAnimator mRemoveColorAnimation = null;
+    private SuggestionAdapter mSuggestionAdapter;
+    private SuggestionSource mSuggestionSource;
+    private SuggestionHistory mHistory;
+
+    private final AdapterView.OnItemClickListener mHistoryRecorder =
+            new AdapterView.OnItemClickListener() {
+
+        @Override
+        public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+            Object item = parent.getItemAtPosition(position);
+            if (mHistory != null && item != null) {
+                mHistory.record(item.toString());
+            }
+        }
+    };
 
     public FloatLabelAutoCompleteTextView(Context context) {
-        this(context, null);
+        this(context, (AttributeSet) null);
     }
 
     public FloatLabelAutoCompleteTextView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        init(context, FloatLabelStyle.obtain(context, attrs, 0, HINT_DEFAULT_COLOR), true);
+    }
+
+    /**
+     * Creates the field from an already resolved style, skipping attribute parsing.
+     */
+    public FloatLabelAutoCompleteTextView(Context context, FloatLabelStyle style) {
+        super(context);
+        init(context, style, false);
+    }
 
+    private void init(Context context, FloatLabelStyle style, boolean inflate) {
         setOrientation(LinearLayout.VERTICAL);
         setGravity(Gravity.LEFT);
 
-        LayoutInflater inflater = (LayoutInflater) context
-                .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        inflater.inflate(R.layout.float_label_autocompletetextview, this, true);
-
-        TypedArray array = context.obtainStyledAttributes(attrs,
-                R.styleable.FloatLabelTextView, 0, 0);
-        String hint = array
-                .getString(R.styleable.FloatLabelTextView_editText_hint);
-        mHintColor = array.getColor(
-                R.styleable.FloatLabelTextView_editText_color,
-                HINT_DEFAULT_COLOR);
-        float size = array
-                .getDimension(R.styleable.FloatLabelTextView_editText_size,
-                        HINT_DEFAULT_SIZE);
-
-        array.recycle();
-
-        mHintView = (TextView) findViewById(R.id.textview_float);
-        mEditText = (AutoCompleteTextView) findViewById(R.id.autoview_main);
-
-        mHintView.setTextColor(HINT_DEFAULT_COLOR_DISABLED);
-
-        mHintView.setText(hint);
-        mEditText.setHint(hint);
-
-        mHintView.setTextSize(size);
-
-        mEditText.setOnFocusChangeListener(new OnFocusChangeListener() {
+        if (inflate) {
+            LayoutInflater inflater = (LayoutInflater) context
+                    .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+            inflater.inflate(R.layout.float_label_autocompletetextview, this, true);
+
+            mLabel = ViewLabelController.forLabel(findViewById(R.id.textview_float));
+            mEditText = (AutoCompleteTextView) findViewById(R.id.autoview_main);
+        } else {
+            FloatLabelStub label = FloatLabelStub.create(context, R.id.textview_float,
+                    Typeface.NORMAL);
+            addView(label, new LayoutParams(LayoutParams.WRAP_CONTENT,
+                    LayoutParams.WRAP_CONTENT));
+            mLabel = new ViewLabelController(label);
+            mEditText = new AutoCompleteTextView(context);
+            mEditText.setId(R.id.autoview_main);
+            mEditText.setInputType(FloatLabelStyle.EDIT_TEXT_INPUT_TYPE);
+            mEditText.setSingleLine(true);
+            addView(mEditText, new LayoutParams(LayoutParams.MATCH_PARENT,
+                    LayoutParams.WRAP_CONTENT));
+        }
 
-            @Override
-            public void onFocusChange(View v, boolean hasFocus) {
-                if (!hasFocus) {
-                    getRemoveColorAnimation().start();
-                } else {
-                    getAddColorAnimation().start();
-                }
-            }
-        });
-
-        mEditText.addTextChangedListener(new TextWatcher() {
-
-            @Override
-            public void afterTextChanged(Editable s) {
-                if (s.length() > 0) {
-                    if (mHintView.getVisibility() == View.INVISIBLE) {
-                        getEntranceAnimation().start();
-                    }
-                } else {
-                    getExitAnimation().start();
-                }
-            }
+        mEditText.setHint(style.getHint());
 
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count,
-                                          int after) {
-            }
+        mLabel.applyStyle(style);
+        mLabel.setFocusedColor(style.getEditColor());
 
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before,
-                                      int count) {
-            }
-        });
+        mEditText.setOnFocusChangeListener(mLabel);
+        mEditText.addTextChangedListener(mLabel);
     }
 
     public void addTextChangedListener(TextWatcher watcher) {
         mEditText.addTextChangedListener(watcher);
     }
 
-    protected ValueAnimator getAddColorAnimation() {
-        if (mAddColorAnimation == null) {
-            mAddColorAnimation = ObjectAnimator.ofInt(mHintView, "textColor",
-                    HINT_DEFAULT_COLOR_DISABLED, mHintColor);
-            mAddColorAnimation.setEvaluator(new ArgbEvaluator());
-            mAddColorAnimation.setDuration(ANIMATION_DURATION);
-        }
-        return mAddColorAnimation;
+    public void removeTextChangedListener(TextWatcher watcher) {
+        mEditText.removeTextChangedListener(watcher);
     }
 
-    protected ValueAnimator getRemoveColorAnimation() {
-        if (mRemoveColorAnimation == null) {
-            mRemoveColorAnimation = ObjectAnimator.ofInt(mHintView,
-                    "textColor", mHintColor, HINT_DEFAULT_COLOR_DISABLED);
-            mRemoveColorAnimation.setEvaluator(new ArgbEvaluator());
-            mRemoveColorAnimation.setDuration(ANIMATION_DURATION);
-        }
-        return mRemoveColorAnimation;
-    }
-
-    protected AnimatorSet getExitAnimation() {
-        if (mExitAnimation == null) {
-            mExitAnimation = new AnimatorSet();
-            mExitAnimation.playTogether(
-                    ObjectAnimator.ofFloat(mHintView, "translationY", 0, 30),
-                    ObjectAnimator.ofFloat(mHintView, "alpha", 1, 0));
-            mExitAnimation.setDuration(ANIMATION_DURATION);
-            mExitAnimation.addListener(new Animator.AnimatorListener() {
-
-                @Override
-                public void onAnimationStart(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    mHintView.setVisibility(View.INVISIBLE);
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animation) {
-                }
-            });
-        }
-
-        return mExitAnimation;
+    public FloatLabelController getLabelController() {
+        return mLabel;
     }
 
     @Override
@@ -193,43 +130,12 @@ public class FloatLabelAutoCompleteTextView extends LinearLayout {
         super.setTag(key, tag);
     }
 
-    protected AnimatorSet getEntranceAnimation() {
-        if (mEntranceAnimation == null) {
-            mEntranceAnimation = new AnimatorSet();
-            mEntranceAnimation.playTogether(
-                    ObjectAnimator.ofFloat(mHintView, "translationY", 30, 0),
-                    ObjectAnimator.ofFloat(mHintView, "alpha", 0, 1));
-            mEntranceAnimation.setDuration(ANIMATION_DURATION);
-            mEntranceAnimation.addListener(new Animator.AnimatorListener() {
-
-                @Override
-                public void onAnimationStart(Animator animation) {
-                    mHintView.setVisibility(View.VISIBLE);
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animation) {
-                }
-            });
-        }
-
-        return mEntranceAnimation;
-    }
-
     public void setAnimationDuration(long duration) {
-        ANIMATION_DURATION = duration;
+        mLabel.setAnimationDuration(duration);
     }
 
     public void setHint(String text) {
-        mHintView.setText(text);
+        mLabel.setLabelText(text);
         mEditText.setHint(text);
     }
 
@@ -246,35 +152,157 @@ public class FloatLabelAutoCompleteTextView extends LinearLayout {
     }
 
     public void setTextColor(ColorStateList colors) {
-        mHintView.setTextColor(colors);
+        mLabel.setLabelTextColor(colors);
     }
 
     public void setTextColor(int color) {
-        mHintView.setTextColor(color);
+        mLabel.setLabelTextColor(ColorStateList.valueOf(color));
     }
 
     public Editable getText() {
         return mEditText.getText();
     }
 
+    public void setError(String error) {
+        mEditText.setError(error);
+    }
+
     public void setTextSize(float size) {
-        mHintView.setTextSize(size);
+        mLabel.setLabelTextSize(TypedValue.COMPLEX_UNIT_SP, size);
     }
 
     public void setTextSize(int unit, float size) {
-        mHintView.setTextSize(unit, size);
+        mLabel.setLabelTextSize(unit, size);
     }
 
     public void setTypeface(Typeface tf, int style) {
-        mHintView.setTypeface(tf, style);
+        mLabel.setLabelTypeface(tf, style);
     }
 
     public void setTypeface(Typeface tf) {
-        mHintView.setTypeface(tf);
+        mLabel.setLabelTypeface(tf);
     }
 
+    /**
+     * Shows suggestions from {@code adapter}, replacing any suggestion source or provider set
+     * before.
+     */
     public void setAdapter(ArrayAdapter<String> adapter){
+        if (mSuggestionAdapter != null) {
+            mSuggestionAdapter.getFilterPipeline().cancel();
+        }
+        mSuggestionAdapter = null;
+        mSuggestionSource = null;
         mEditText.setAdapter(adapter);
     }
 
+    /**
+     * Shows suggestions from {@code source}, e.g. a shared {@link SuggestionIndex}, instead of
+     * an ArrayAdapter.
+     */
+    public void setSuggestionSource(SuggestionSource source) {
+        mSuggestionSource = source;
+        SuggestionSource ranked = mHistory != null ? mHistory.rank(source) : source;
+        if (mSuggestionAdapter == null) {
+            mSuggestionAdapter = new SuggestionAdapter(getContext(), ranked);
+        } else {
+            mSuggestionAdapter.setSuggestionSource(ranked);
+        }
+        mEditText.setAdapter(mSuggestionAdapter);
+    }
+
+    /**
+     * Records the suggestions the user picks in {@code history} and lists previously picked
+     * matches first, ahead of the results of the {@link #setSuggestionSource suggestion
+     * source}. Null turns history off.
+     *
+     * <p>History has no effect on the order of results from a
+     * {@link #setSuggestionProvider suggestion provider} or an ArrayAdapter; picks from them
+     * are recorded but not ranked first.
+     */
+    public void setSuggestionHistory(SuggestionHistory history) {
+        mHistory = history;
+        mEditText.setOnItemClickListener(history != null ? mHistoryRecorder : null);
+        if (mSuggestionSource != null) {
+            setSuggestionSource(mSuggestionSource);
+        }
+    }
+
+    /**
+     * Fetches suggestions asynchronously from {@code provider}, e.g. a
+     * {@link CachingSuggestionProvider} in front of a server-side search.
+     */
+    public void setSuggestionProvider(AsyncSuggestionProvider provider) {
+        mSuggestionSource = null;
+        if (mSuggestionAdapter == null) {
+            mSuggestionAdapter = new SuggestionAdapter(getContext(), provider);
+        } else {
+            mSuggestionAdapter.setSuggestionProvider(provider);
+        }
+        mEditText.setAdapter(mSuggestionAdapter);
+    }
+
+    /**
+     * Adapter installed by {@link #setSuggestionSource} or {@link #setSuggestionProvider}, or
+     * null. Its {@link SuggestionAdapter#getFilterPipeline() pipeline} configures debouncing
+     * and the executor queries run on.
+     */
+    public SuggestionAdapter getSuggestionAdapter() {
+        return mSuggestionAdapter;
+    }
+
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    /**
+     * Saves the field's own state under its id; the children's ids repeat in every field.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        FloatLabelSavedState state = new FloatLabelSavedState(super.onSaveInstanceState());
+        state.text = mEditText.getText().toString();
+        state.selectionStart = mEditText.getSelectionStart();
+        state.selectionEnd = mEditText.getSelectionEnd();
+        state.labelShown = mLabel.isLabelShown();
+        return state;
+    }
+
+    /**
+     * Restores the text and puts the label straight into its saved state.
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof FloatLabelSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        FloatLabelSavedState saved = (FloatLabelSavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+        setTextWithoutFiltering(saved.text);
+        if (saved.selectionStart >= 0 && saved.selectionEnd <= mEditText.length()) {
+            mEditText.setSelection(saved.selectionStart, saved.selectionEnd);
+        }
+        mLabel.setContentPresent(saved.labelShown);
+        mLabel.jumpToCurrentState();
+    }
+
+    private void setTextWithoutFiltering(CharSequence text) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            setTextWithoutFilteringJellyBeanMr1(text);
+        } else {
+            mEditText.setText(text);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void setTextWithoutFilteringJellyBeanMr1(CharSequence text) {
+        mEditText.setText(text, false);
+    }
 }
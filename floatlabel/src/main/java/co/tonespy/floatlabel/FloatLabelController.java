@@ -0,0 +1,435 @@
+package co.tonespy.floatlabel;
+
+import android.graphics.Typeface;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.TypedValue;
+import android.view.View;
+
+import com.nineoldandroids.animation.ValueAnimator;
+
+/**
+ * Owns the floating label of a field: whether it is shown, its entrance and exit
+ * animations, its focus color and the style it was resolved from. Widgets only forward
+ * content and focus changes to it; subclasses decide how a label progress and color end up
+ * on screen, so any field type can plug in.
+ *
+ * <p>The label progress runs from 0 (hidden) to 1 (shown) and, like the label color, is
+ * kept as primitive state; colors are interpolated per ARGB channel on plain ints. By
+ * default both are advanced by the shared {@link FloatLabelTicker}; the
+ * {@link #BACKEND_ANIMATOR} backend drives them from per-field nineoldandroids animators
+ * instead. A controller can be attached to an input view directly as its
+ * {@link TextWatcher} and {@link View.OnFocusChangeListener}.
+ *
+ * <p>Showing and hiding follow an explicit state machine, {@link #STATE_HIDDEN} &rarr;
+ * {@link #STATE_ENTERING} &rarr; {@link #STATE_SHOWN} &rarr; {@link #STATE_EXITING}.
+ * Requests that do not change the target state are ignored, and a request against an
+ * in-flight transition reverses it from its current progress instead of restarting it, so
+ * bursts of text changes never restart or stack label animations.
+ *
+ * <p>Animation settings are per controller and apply to transitions already in flight.
+ * Transitions that {@link FloatLabelMotionPolicy} rules out jump straight to their end
+ * state.
+ */
+public abstract class FloatLabelController implements TextWatcher, View.OnFocusChangeListener {
+
+    public static final long ANIMATION_DURATION = 400;
+    public static final int HINT_DEFAULT_COLOR_DISABLED = 0xFF2F6CB3;
+
+    /** Distance in pixels the label travels while it enters or exits. */
+    public static final int LABEL_TRANSLATION = 30;
+
+    /** Label transitions are advanced by the shared {@link FloatLabelTicker}. */
+    public static final int BACKEND_TICKER = 0;
+    /** Label transitions are run by a nineoldandroids animator owned by the field. */
+    public static final int BACKEND_ANIMATOR = 1;
+
+    public static final int STATE_HIDDEN = 0;
+    public static final int STATE_ENTERING = 1;
+    public static final int STATE_SHOWN = 2;
+    public static final int STATE_EXITING = 3;
+
+    private static int sDefaultBackend = BACKEND_TICKER;
+
+    private int mBackend = sDefaultBackend;
+
+    private int mLabelState = STATE_HIDDEN;
+    private float mProgress;
+    private float mProgressFrom;
+    private long mProgressStartTime;
+    private long mProgressDuration;
+    private int mColor = HINT_DEFAULT_COLOR_DISABLED;
+    private int mColorFrom;
+    private int mColorTo;
+    private long mColorStartTime;
+    private boolean mColorRunning;
+    private boolean mFocused;
+    private int mFocusedColor = HINT_DEFAULT_COLOR_DISABLED;
+    private long mAnimationDuration = ANIMATION_DURATION;
+
+    private ValueAnimator mProgressAnimation = null;
+    private ValueAnimator mColorAnimation = null;
+
+    /**
+     * Applies a new label progress, 0 being hidden and 1 fully shown.
+     */
+    protected abstract void onLabelProgressChanged(float progress);
+
+    /**
+     * Applies a new label color.
+     */
+    protected abstract void onLabelColorChanged(int color);
+
+    public abstract void setLabelText(CharSequence text);
+
+    public abstract void setLabelTextSize(int unit, float size);
+
+    public abstract void setLabelTypeface(Typeface tf);
+
+    /**
+     * View the label is drawn in, checked against {@link FloatLabelMotionPolicy} before a
+     * transition animates. It must be visible while the label is hidden, or the label's
+     * entrance never animates. Null means only the global settings apply.
+     */
+    protected View getHostView() {
+        return null;
+    }
+
+    /**
+     * Applies the label side of a resolved style: text, size, typeface and focus color.
+     */
+    public void applyStyle(FloatLabelStyle style) {
+        setLabelText(style.getHint());
+        setLabelTextSize(TypedValue.COMPLEX_UNIT_SP, style.getTextSize());
+        if (style.getTypeface() != null) {
+            setLabelTypeface(style.getTypeface());
+        }
+        setFocusedColor(style.getHintColor());
+    }
+
+    /**
+     * Sets the backend used by controllers created from now on.
+     */
+    public static void setDefaultAnimationBackend(int backend) {
+        sDefaultBackend = backend;
+    }
+
+    /**
+     * Switches this controller between {@link #BACKEND_TICKER} and {@link #BACKEND_ANIMATOR}.
+     */
+    public void setAnimationBackend(int backend) {
+        if (mBackend != backend) {
+            finishTransitions();
+            mBackend = backend;
+        }
+    }
+
+    public int getAnimationBackend() {
+        return mBackend;
+    }
+
+    /**
+     * Shows the label when the field gets content and hides it when the content goes away.
+     */
+    public void setContentPresent(boolean present) {
+        switch (mLabelState) {
+            case STATE_HIDDEN:
+            case STATE_EXITING:
+                if (present) {
+                    animateProgress(STATE_ENTERING);
+                }
+                break;
+            case STATE_SHOWN:
+            case STATE_ENTERING:
+                if (!present) {
+                    animateProgress(STATE_EXITING);
+                }
+                break;
+        }
+    }
+
+    /**
+     * One of {@link #STATE_HIDDEN}, {@link #STATE_ENTERING}, {@link #STATE_SHOWN} or
+     * {@link #STATE_EXITING}.
+     */
+    public int getLabelState() {
+        return mLabelState;
+    }
+
+    /**
+     * Fades the label towards the focused color, or back to the unfocused one, starting from
+     * whatever color it currently has.
+     */
+    public void setFocused(boolean focused) {
+        mFocused = focused;
+        animateColor(focused ? mFocusedColor : HINT_DEFAULT_COLOR_DISABLED);
+    }
+
+    public void setFocusedColor(int color) {
+        mFocusedColor = color;
+        if (mFocused) {
+            animateColor(color);
+        }
+    }
+
+    public int getFocusedColor() {
+        return mFocusedColor;
+    }
+
+    /**
+     * Sets the duration of this field's transitions. Running transitions continue from where
+     * they are with the new duration.
+     */
+    public void setAnimationDuration(long duration) {
+        if (mAnimationDuration == duration) {
+            return;
+        }
+        mAnimationDuration = duration;
+        if (isProgressRunning()) {
+            animateProgress(mLabelState);
+        }
+        if (mColorRunning) {
+            animateColor(mColorTo);
+        }
+    }
+
+    public long getAnimationDuration() {
+        return mAnimationDuration;
+    }
+
+    public float getLabelProgress() {
+        return mProgress;
+    }
+
+    public int getLabelColor() {
+        return mColor;
+    }
+
+    /**
+     * Whether the label is shown or on its way in.
+     */
+    public boolean isLabelShown() {
+        return mLabelState == STATE_SHOWN || mLabelState == STATE_ENTERING;
+    }
+
+    /**
+     * Jumps every running transition to its end state, e.g. once a recycled field has been
+     * bound to new content, so the rebind itself is never animated.
+     */
+    public void jumpToCurrentState() {
+        finishTransitions();
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        setContentPresent(s.length() > 0);
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void onFocusChange(View v, boolean hasFocus) {
+        setFocused(hasFocus);
+    }
+
+    /**
+     * Blends two ARGB colors channel by channel without allocating.
+     */
+    public static int blendArgb(int from, int to, float fraction) {
+        int a = from >>> 24;
+        int r = (from >> 16) & 0xff;
+        int g = (from >> 8) & 0xff;
+        int b = from & 0xff;
+        a += (int) (((to >>> 24) - a) * fraction);
+        r += (int) ((((to >> 16) & 0xff) - r) * fraction);
+        g += (int) ((((to >> 8) & 0xff) - g) * fraction);
+        b += (int) (((to & 0xff) - b) * fraction);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Advances the label transitions to {@code frameTimeMillis}, in the time base of
+     * {@link FloatLabelTicker#currentTimeMillis()}. Returns whether any is still running.
+     */
+    boolean onFrame(long frameTimeMillis) {
+        if (isProgressRunning()) {
+            float fraction = getFraction(frameTimeMillis, mProgressStartTime, mProgressDuration);
+            setProgressFraction(interpolate(fraction));
+            if (fraction == 1f) {
+                onProgressEnd();
+            }
+        }
+        if (mColorRunning) {
+            float fraction = getFraction(frameTimeMillis, mColorStartTime, mAnimationDuration);
+            if (fraction == 1f) {
+                mColorRunning = false;
+            }
+            setColorFraction(interpolate(fraction));
+        }
+        return isProgressRunning() || mColorRunning;
+    }
+
+    private static float getFraction(long frameTimeMillis, long startTime, long duration) {
+        if (duration <= 0) {
+            return 1f;
+        }
+        float fraction = (float) (frameTimeMillis - startTime) / duration;
+        return fraction < 0f ? 0f : fraction > 1f ? 1f : fraction;
+    }
+
+    /**
+     * Same curve as the animators' default AccelerateDecelerateInterpolator.
+     */
+    private static float interpolate(float fraction) {
+        return (float) (Math.cos((fraction + 1) * Math.PI) / 2.0f) + 0.5f;
+    }
+
+    private boolean isProgressRunning() {
+        return mLabelState == STATE_ENTERING || mLabelState == STATE_EXITING;
+    }
+
+    /**
+     * Starts entering or exiting from the current progress. The duration is scaled by the
+     * distance left to cover, so reversing a transition halfway takes half the time.
+     */
+    private void animateProgress(int state) {
+        cancelProgressAnimation();
+        float target = state == STATE_ENTERING ? 1f : 0f;
+        mLabelState = state;
+        mProgressFrom = mProgress;
+        mProgressDuration = (long) (mAnimationDuration * Math.abs(target - mProgress));
+        if (mProgressDuration <= 0 || !FloatLabelMotionPolicy.shouldAnimate(getHostView())) {
+            setProgressFraction(1f);
+            onProgressEnd();
+        } else if (mBackend == BACKEND_ANIMATOR) {
+            ValueAnimator animation = getProgressAnimation();
+            animation.setDuration(mProgressDuration);
+            animation.start();
+        } else {
+            mProgressStartTime = FloatLabelTicker.currentTimeMillis();
+            FloatLabelTicker.getInstance().add(this);
+        }
+    }
+
+    /**
+     * Jumps every running transition to its end state.
+     */
+    private void finishTransitions() {
+        if (isProgressRunning()) {
+            cancelProgressAnimation();
+            setProgressFraction(1f);
+            onProgressEnd();
+        }
+        if (mColorRunning) {
+            cancelColorAnimation();
+            setColorFraction(1f);
+        }
+    }
+
+    private void onProgressEnd() {
+        mLabelState = mLabelState == STATE_ENTERING ? STATE_SHOWN : STATE_HIDDEN;
+    }
+
+    private void cancelProgressAnimation() {
+        if (isProgressRunning() && mBackend == BACKEND_ANIMATOR) {
+            getProgressAnimation().cancel();
+        }
+    }
+
+    private void setProgressFraction(float fraction) {
+        float target = mLabelState == STATE_ENTERING ? 1f : 0f;
+        mProgress = mProgressFrom + (target - mProgressFrom) * fraction;
+        onLabelProgressChanged(mProgress);
+    }
+
+    private ValueAnimator getProgressAnimation() {
+        if (mProgressAnimation == null) {
+            mProgressAnimation = ValueAnimator.ofFloat(0, 1);
+            mProgressAnimation.addUpdateListener(mProgressListener);
+        }
+        return mProgressAnimation;
+    }
+
+    private void animateColor(int to) {
+        cancelColorAnimation();
+        if (mColor == to) {
+            return;
+        }
+        mColorFrom = mColor;
+        mColorTo = to;
+        if (mAnimationDuration <= 0 || !FloatLabelMotionPolicy.shouldAnimate(getHostView())) {
+            setColorFraction(1f);
+            return;
+        }
+        mColorRunning = true;
+        if (mBackend == BACKEND_ANIMATOR) {
+            ValueAnimator animation = getColorAnimation();
+            animation.setDuration(mAnimationDuration);
+            animation.start();
+        } else {
+            mColorStartTime = FloatLabelTicker.currentTimeMillis();
+            FloatLabelTicker.getInstance().add(this);
+        }
+    }
+
+    private void cancelColorAnimation() {
+        if (mColorRunning) {
+            mColorRunning = false;
+            if (mBackend == BACKEND_ANIMATOR) {
+                getColorAnimation().cancel();
+            }
+        }
+    }
+
+    private void setColorFraction(float fraction) {
+        int color = blendArgb(mColorFrom, mColorTo, fraction);
+        if (color != mColor) {
+            mColor = color;
+            onLabelColorChanged(color);
+        }
+    }
+
+    private ValueAnimator getColorAnimation() {
+        if (mColorAnimation == null) {
+            mColorAnimation = ValueAnimator.ofFloat(0, 1);
+            mColorAnimation.addUpdateListener(mColorListener);
+        }
+        return mColorAnimation;
+    }
+
+    private final ValueAnimator.AnimatorUpdateListener mProgressListener =
+            new ValueAnimator.AnimatorUpdateListener() {
+
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    if (isProgressRunning()) {
+                        float fraction = animation.getAnimatedFraction();
+                        setProgressFraction(fraction);
+                        if (fraction == 1f) {
+                            onProgressEnd();
+                        }
+                    }
+                }
+            };
+
+    private final ValueAnimator.AnimatorUpdateListener mColorListener =
+            new ValueAnimator.AnimatorUpdateListener() {
+
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    if (mColorRunning) {
+                        float fraction = animation.getAnimatedFraction();
+                        if (fraction == 1f) {
+                            mColorRunning = false;
+                        }
+                        setColorFraction(fraction);
+                    }
+                }
+            };
+}
@@ -0,0 +1,85 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.widget.EditText;
+
+/**
+ * Single-view counterpart of {@link FloatLabelTextView}. The floating label is drawn and
+ * animated on the EditText's own canvas, so each field is one View to measure, lay out and
+ * draw. Accepts the same {@code FloatLabelTextView} attributes.
+ */
+public class FloatLabelEditText extends EditText {
+    private static final String TAG = "FloatLabelEditText";
+
+    private static final int HINT_DEFAULT_COLOR = 0xFF808080;
+
+    private InlineFloatLabel mFloatLabel;
+
+    public FloatLabelEditText(Context context) {
+        this(context, (AttributeSet) null);
+    }
+
+    public FloatLabelEditText(Context context, AttributeSet attrs) {
+        this(context, attrs, android.R.attr.editTextStyle);
+    }
+
+    public FloatLabelEditText(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(FloatLabelStyle.obtain(context, attrs, defStyleAttr, HINT_DEFAULT_COLOR));
+    }
+
+    /**
+     * Creates the field from an already resolved style, skipping attribute parsing.
+     */
+    public FloatLabelEditText(Context context, FloatLabelStyle style) {
+        super(context, null, android.R.attr.editTextStyle);
+        init(style);
+    }
+
+    private void init(FloatLabelStyle style) {
+        mFloatLabel = new InlineFloatLabel(this);
+        mFloatLabel.applyStyle(style);
+        addTextChangedListener(mFloatLabel);
+        mFloatLabel.setContentPresent(length() > 0);
+    }
+
+    @Override
+    public int getCompoundPaddingTop() {
+        int padding = super.getCompoundPaddingTop();
+        return mFloatLabel == null ? padding : padding + mFloatLabel.getReservedHeight();
+    }
+
+    @Override
+    protected void onFocusChanged(boolean focused, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(focused, direction, previouslyFocusedRect);
+        mFloatLabel.setFocused(focused);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        mFloatLabel.draw(canvas, getScrollX() + getCompoundPaddingLeft(),
+                getScrollY() + getPaddingTop());
+    }
+
+    public FloatLabelController getLabelController() {
+        return mFloatLabel;
+    }
+
+    public void setAnimationDuration(long duration) {
+        mFloatLabel.setAnimationDuration(duration);
+    }
+
+    /**
+     * Puts the label straight into the state of the restored text instead of animating it.
+     */
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        super.onRestoreInstanceState(state);
+        mFloatLabel.jumpToCurrentState();
+    }
+}
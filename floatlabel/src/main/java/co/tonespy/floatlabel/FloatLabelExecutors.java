@@ -0,0 +1,61 @@
+package co.tonespy.floatlabel;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executor shared by every FloatLabel component that works off the UI thread.
+ * It is bounded and its idle threads time out, so it costs nothing while unused.
+ */
+public final class FloatLabelExecutors {
+
+    private static final int POOL_SIZE =
+            Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 3));
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static Executor sBackgroundExecutor;
+
+    private FloatLabelExecutors() {
+    }
+
+    public static synchronized Executor getBackgroundExecutor() {
+        if (sBackgroundExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new BackgroundThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            sBackgroundExecutor = executor;
+        }
+        return sBackgroundExecutor;
+    }
+
+    /**
+     * Replaces the shared executor, e.g. with the application's own pool or with a direct
+     * executor in tests.
+     */
+    public static synchronized void setBackgroundExecutor(Executor executor) {
+        sBackgroundExecutor = executor;
+    }
+
+    private static final class BackgroundThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            return new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "FloatLabel #" + mCount.getAndIncrement());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package co.tonespy.floatlabel;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Views of a form built by {@link FormBuilder}, together with the {@link FormStore} that
+ * holds its values and the {@link FormBinder} that keeps the two in sync.
+ */
+public class FloatLabelForm {
+
+    private final FormSchema mSchema;
+    private final ViewGroup mContainer;
+    private final View[] mFieldViews;
+    private final FormStore mStore;
+    private final FormBinder mBinder;
+
+    FloatLabelForm(FormSchema schema, ViewGroup container, View[] fieldViews, FormStore store,
+                   FormBinder binder) {
+        mSchema = schema;
+        mContainer = container;
+        mFieldViews = fieldViews;
+        mStore = store;
+        mBinder = binder;
+    }
+
+    public FormSchema getSchema() {
+        return mSchema;
+    }
+
+    /**
+     * The view every field was added to.
+     */
+    public ViewGroup getView() {
+        return mContainer;
+    }
+
+    public View getFieldView(int field) {
+        return mFieldViews[field];
+    }
+
+    /**
+     * The view of the field with {@code key}, or null.
+     */
+    public View getFieldView(String key) {
+        int field = mSchema.indexOf(key);
+        return field >= 0 ? mFieldViews[field] : null;
+    }
+
+    public FormStore getStore() {
+        return mStore;
+    }
+
+    public FormBinder getBinder() {
+        return mBinder;
+    }
+}
@@ -0,0 +1,110 @@
+package co.tonespy.floatlabel;
+
+import android.annotation.TargetApi;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.view.View;
+
+/**
+ * Process-wide rules for when FloatLabel transitions are worth animating. A transition that
+ * fails the policy jumps straight to its end state, so bulk prefill, state restore and
+ * off-screen fields pay nothing for animations nobody sees.
+ *
+ * <p>Animations are skipped when they are disabled globally, when the system animator
+ * duration scale is zero or battery saver is on (while {@link #setRespectSystemSettings}
+ * is enabled, the default), and when the field is detached, its window is not visible, it is
+ * not shown or it is entirely off-screen. The system settings are re-read at most once per
+ * second. Must only be used from the main thread.
+ */
+public final class FloatLabelMotionPolicy {
+
+    private static final long SYSTEM_STATE_TTL = 1000;
+
+    private static final Rect sVisibleRect = new Rect();
+
+    private static boolean sAnimationsEnabled = true;
+    private static boolean sRespectSystemSettings = true;
+
+    private static boolean sSystemAllowsMotion = true;
+    private static long sSystemStateTime = -SYSTEM_STATE_TTL;
+
+    private FloatLabelMotionPolicy() {
+    }
+
+    /**
+     * Turns every FloatLabel animation in the process on or off, e.g. for a reduced-motion
+     * preference.
+     */
+    public static void setAnimationsEnabled(boolean enabled) {
+        sAnimationsEnabled = enabled;
+    }
+
+    public static boolean areAnimationsEnabled() {
+        return sAnimationsEnabled;
+    }
+
+    /**
+     * Whether the system animator duration scale and battery saver are honoured.
+     */
+    public static void setRespectSystemSettings(boolean respect) {
+        sRespectSystemSettings = respect;
+        sSystemStateTime = -SYSTEM_STATE_TTL;
+    }
+
+    /**
+     * Returns whether a transition of a label hosted by {@code view} should animate. A null
+     * view is only checked against the global and system settings.
+     */
+    public static boolean shouldAnimate(View view) {
+        if (!sAnimationsEnabled) {
+            return false;
+        }
+        if (view == null) {
+            return !sRespectSystemSettings || systemAllowsMotion(null);
+        }
+        if (view.getWindowToken() == null
+                || view.getWindowVisibility() != View.VISIBLE
+                || !view.isShown()
+                || !view.getGlobalVisibleRect(sVisibleRect)) {
+            return false;
+        }
+        return !sRespectSystemSettings || systemAllowsMotion(view.getContext());
+    }
+
+    private static boolean systemAllowsMotion(Context context) {
+        long now = SystemClock.uptimeMillis();
+        if (context != null && now - sSystemStateTime >= SYSTEM_STATE_TTL) {
+            sSystemStateTime = now;
+            sSystemAllowsMotion = getAnimatorDurationScale(context.getContentResolver()) > 0f
+                    && !isPowerSaveMode(context);
+        }
+        return sSystemAllowsMotion;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static float getAnimatorDurationScale(ContentResolver resolver) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return getGlobalAnimatorDurationScale(resolver);
+        }
+        return Settings.System.getFloat(resolver, Settings.System.ANIMATOR_DURATION_SCALE, 1f);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private static float getGlobalAnimatorDurationScale(ContentResolver resolver) {
+        return Settings.Global.getFloat(resolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static boolean isPowerSaveMode(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return false;
+        }
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        return powerManager != null && powerManager.isPowerSaveMode();
+    }
+}
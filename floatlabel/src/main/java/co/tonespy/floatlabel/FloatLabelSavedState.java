@@ -0,0 +1,66 @@
+package co.tonespy.floatlabel;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+
+/**
+ * Instance state of a FloatLabel widget: its text and text selection, or its spinner
+ * position, plus whether its label is shown. One of these is saved under the widget's own
+ * id instead of the states of its children, whose ids repeat in every widget.
+ */
+class FloatLabelSavedState extends View.BaseSavedState {
+
+    private static final int FLAG_LABEL_SHOWN = 1;
+    private static final int FLAG_HAS_TEXT = 1 << 1;
+
+    String text;
+    int selectionStart = -1;
+    int selectionEnd = -1;
+    int position = -1;
+    boolean labelShown;
+
+    FloatLabelSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    private FloatLabelSavedState(Parcel in) {
+        super(in);
+        int flags = in.readInt();
+        labelShown = (flags & FLAG_LABEL_SHOWN) != 0;
+        if ((flags & FLAG_HAS_TEXT) != 0) {
+            text = in.readString();
+            selectionStart = in.readInt();
+            selectionEnd = in.readInt();
+        } else {
+            position = in.readInt();
+        }
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        super.writeToParcel(out, flags);
+        out.writeInt((labelShown ? FLAG_LABEL_SHOWN : 0) | (text != null ? FLAG_HAS_TEXT : 0));
+        if (text != null) {
+            out.writeString(text);
+            out.writeInt(selectionStart);
+            out.writeInt(selectionEnd);
+        } else {
+            out.writeInt(position);
+        }
+    }
+
+    public static final Parcelable.Creator<FloatLabelSavedState> CREATOR =
+            new Parcelable.Creator<FloatLabelSavedState>() {
+
+                @Override
+                public FloatLabelSavedState createFromParcel(Parcel in) {
+                    return new FloatLabelSavedState(in);
+                }
+
+                @Override
+                public FloatLabelSavedState[] newArray(int size) {
+                    return new FloatLabelSavedState[size];
+                }
+            };
+}
@@ -5,154 +5,122 @@ package co.tonespy.floatlabel;
  */
 import android.content.Context;
 import android.content.res.ColorStateList;
-import android.content.res.TypedArray;
 import android.graphics.Typeface;
+import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.LinearLayout;
-import android.widget.Spinner;
+import android.widget.SpinnerAdapter;
 import android.widget.TextView;
 
-import com.nineoldandroids.animation.Animator;
-import com.nineoldandroids.animation.Animator.AnimatorListener;
-import com.nineoldandroids.animation.AnimatorSet;
-import com.nineoldandroids.animation.ArgbEvaluator;
-import com.nineoldandroids.animation.ObjectAnimator;
-import com.nineoldandroids.animation.ValueAnimator;
-
 public class FloatLabelSpinnerView extends LinearLayout {
 
+    /**
+     * Placeholder position meaning every option is a real choice.
+     */
+    public static final int NO_PLACEHOLDER = -1;
+
+    /**
+     * Receives selection changes as primitives, without boxing.
+     */
+    public interface OnOptionSelectedListener {
+
+        /**
+         * @param position selected position, or -1 when nothing is selected
+         * @param id       id of the selected option, or {@link IdOptionDataSource#NO_ID} when
+         *                 nothing or the placeholder is selected
+         */
+        void onOptionSelected(FloatLabelSpinnerView view, int position, long id);
+    }
+
     private static final String TAG = "FloatSpinnerView";
 
-    private static long ANIMATION_DURATION = 400;
     private static int HINT_DEFAULT_COLOR = 0xFF006363;
-    private static final int HINT_DEFAULT_COLOR_DISABLED = 0xFF2F6CB3;
-    private static int HINT_DEFAULT_SIZE = 13;
-
-    private TextView mHintView;
-    private Spinner mSpinner;
 
-    private int mHintColor;
-
-    private AnimatorSet mEntranceAnimation = null;
-    private AnimatorSet mExitAnimation = null;
-    private ValueAnimator mAddColorAnimation = null;
-    private ValueAnimator mRemoveColorAnimation = null;
+    private ViewLabelController mLabel;
+    private OptionSpinner mSpinner;
+    private OptionDataSource mOptionSource;
+    private boolean mSearchable;
+    private int mPlaceholderPosition = 0;
+    private int mPendingPosition = -1;
+    private OnOptionSelectedListener mOnOptionSelectedListener;
 
     public FloatLabelSpinnerView(Context context) {
-        super(context);
+        this(context, (AttributeSet) null);
     }
 
     public FloatLabelSpinnerView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        init(context, FloatLabelStyle.obtain(context, attrs, 0, HINT_DEFAULT_COLOR), true);
+    }
 
+    /**
+     * Creates the field from an already resolved style, skipping attribute parsing.
+     */
+    public FloatLabelSpinnerView(Context context, FloatLabelStyle style) {
+        super(context);
+        init(context, style, false);
+    }
+
+    private void init(Context context, FloatLabelStyle style, boolean inflate) {
         setOrientation(LinearLayout.VERTICAL);
         setGravity(Gravity.LEFT);
 
-        LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        inflater.inflate(R.layout.float_label_spinnerview, this, true);
-
-        TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.FloatLabelTextView, 0, 0);
-        String hint = array.getString(R.styleable.FloatLabelTextView_editText_hint);
-        mHintColor = array.getColor(R.styleable.FloatLabelTextView_editText_color, HINT_DEFAULT_COLOR);
-
-        float size = array.getDimension(R.styleable.FloatLabelTextView_editText_size, HINT_DEFAULT_SIZE);
-
-        array.recycle();
-
-        mHintView = (TextView) findViewById(R.id.spinnerTextview_float);
-        mSpinner = (Spinner) findViewById(R.id.spinnerview_main);
-
-        mHintView.setTextColor(HINT_DEFAULT_COLOR_DISABLED);
-
-        mHintView.setText(hint);
+        if (inflate) {
+            LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+            inflater.inflate(R.layout.float_label_spinnerview, this, true);
+
+            mLabel = ViewLabelController.forLabel(findViewById(R.id.spinnerTextview_float));
+            mSpinner = (OptionSpinner) findViewById(R.id.spinnerview_main);
+        } else {
+            FloatLabelStub label = FloatLabelStub.create(context, R.id.spinnerTextview_float,
+                    Typeface.BOLD);
+            addView(label, new LayoutParams(LayoutParams.WRAP_CONTENT,
+                    LayoutParams.WRAP_CONTENT));
+            mLabel = new ViewLabelController(label);
+            // Uses the theme's spinnerStyle rather than the layout's AppCompat style.
+            mSpinner = new OptionSpinner(context);
+            mSpinner.setId(R.id.spinnerview_main);
+            addView(mSpinner, new LayoutParams(LayoutParams.MATCH_PARENT,
+                    LayoutParams.WRAP_CONTENT));
+        }
 
-        mHintView.setTextSize(size);
+        mLabel.applyStyle(style);
+        mLabel.setFocusedColor(style.getEditColor());
 
-        mSpinner.setOnFocusChangeListener(new OnFocusChangeListener() {
-            @Override
-            public void onFocusChange(View v, boolean hasFocus) {
-                if (!hasFocus) {
-                    getRemoveColorAnimation().start();
-                } else {
-                    getAddColorAnimation().start();
-                }
-            }
-        });
+        mSpinner.setOnFocusChangeListener(mLabel);
 
         mSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
 
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                if (position > 0) {
-                    if (mHintView.getVisibility() == View.INVISIBLE) {
-                        getEntranceAnimation().start();
-                    }
-                } else {
-                    getExitAnimation().start();
+                boolean placeholder = position == mPlaceholderPosition;
+                mLabel.setContentPresent(!placeholder);
+                if (mOnOptionSelectedListener != null) {
+                    mOnOptionSelectedListener.onOptionSelected(FloatLabelSpinnerView.this,
+                            position, placeholder ? IdOptionDataSource.NO_ID : id);
                 }
             }
 
             @Override
             public void onNothingSelected(AdapterView<?> parent) {
-                getExitAnimation().start();
+                mLabel.setContentPresent(false);
+                if (mOnOptionSelectedListener != null) {
+                    mOnOptionSelectedListener.onOptionSelected(FloatLabelSpinnerView.this,
+                            -1, IdOptionDataSource.NO_ID);
+                }
             }
         });
     }
 
-    protected ValueAnimator getAddColorAnimation() {
-        if (mAddColorAnimation == null){
-            mAddColorAnimation = ObjectAnimator.ofInt(mHintView, "textColor", HINT_DEFAULT_COLOR_DISABLED, mHintColor);
-            mAddColorAnimation.setEvaluator(new ArgbEvaluator());
-            mAddColorAnimation.setDuration(ANIMATION_DURATION);
-        }
-        return mAddColorAnimation;
-    }
-
-    protected ValueAnimator getRemoveColorAnimation(){
-        if (mRemoveColorAnimation == null) {
-            mRemoveColorAnimation = ObjectAnimator.ofInt(mHintView,
-                    "textColor", mHintColor, HINT_DEFAULT_COLOR_DISABLED);
-            mRemoveColorAnimation.setEvaluator(new ArgbEvaluator());
-            mRemoveColorAnimation.setDuration(ANIMATION_DURATION);
-        }
-        return mRemoveColorAnimation;
-    }
-
-    protected AnimatorSet getExitAnimation() {
-        if (mExitAnimation == null) {
-            mExitAnimation = new AnimatorSet();
-            mExitAnimation.playTogether(
-                    ObjectAnimator.ofFloat(mHintView, "translationY", 0, 30),
-                    ObjectAnimator.ofFloat(mHintView, "alpha", 1, 0));
-            mExitAnimation.setDuration(ANIMATION_DURATION);
-            mExitAnimation.addListener(new AnimatorListener() {
-                @Override
-                public void onAnimationStart(Animator animation) {
-
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    mHintView.setVisibility(View.INVISIBLE);
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animation) {
-
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animation) {
-
-                }
-            });
-        }
-        return mExitAnimation;
+    public FloatLabelController getLabelController() {
+        return mLabel;
     }
 
     @Override
@@ -173,75 +141,233 @@ public class FloatLabelSpinnerView extends LinearLayout {
         super.setTag(key, tag);
     }
 
-    protected AnimatorSet getEntranceAnimation(){
-        if (mEntranceAnimation == null) {
-            mEntranceAnimation = new AnimatorSet();
-            mEntranceAnimation.playTogether(
-                    ObjectAnimator.ofFloat(mHintView, "translationY", 30, 0),
-                    ObjectAnimator.ofFloat(mHintView, "alpha", 0, 1));
-            mEntranceAnimation.setDuration(ANIMATION_DURATION);
-            mEntranceAnimation.addListener(new AnimatorListener() {
-                @Override
-                public void onAnimationStart(Animator animation) {
-                    mHintView.setVisibility(View.VISIBLE);
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animation) {
-
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animation) {
-
-                }
-            });
-        }
-        return mEntranceAnimation;
-    }
-
     public void setAnimationDuration(long duration) {
-        ANIMATION_DURATION = duration;
+        mLabel.setAnimationDuration(duration);
     }
 
     public void setHint(String text) {
-        mHintView.setText(text);
+        mLabel.setLabelText(text);
     }
 
     public void setTextSize(float size) {
-        mHintView.setTextSize(size);
+        mLabel.setLabelTextSize(TypedValue.COMPLEX_UNIT_SP, size);
     }
 
     public void setTextSize(int unit, float size) {
-        mHintView.setTextSize(unit, size);
+        mLabel.setLabelTextSize(unit, size);
     }
 
     public void setTypeface(Typeface tf, int style) {
-        mHintView.setTypeface(tf, style);
+        mLabel.setLabelTypeface(tf, style);
     }
 
     public void setTypeface(Typeface tf) {
-        mHintView.setTypeface(tf);
+        mLabel.setLabelTypeface(tf);
     }
 
     public void setTextColor(ColorStateList colors) {
-        mHintView.setTextColor(colors);
+        mLabel.setLabelTextColor(colors);
     }
 
     public void setTextColor(int color) {
-        mHintView.setTextColor(color);
+        mLabel.setLabelTextColor(ColorStateList.valueOf(color));
     }
 
     public void setAdatper(ArrayAdapter<String> adapter){
         mSpinner.setAdapter(adapter);
+        applyPendingPosition();
+    }
+
+    /**
+     * Sets any spinner adapter, e.g. a {@link PackedStringAdapter} for large option lists.
+     */
+    public void setAdapter(SpinnerAdapter adapter) {
+        mSpinner.setAdapter(adapter);
+        applyPendingPosition();
+    }
+
+    /**
+     * Shows the options of {@code source}, loaded a page at a time in the background, so
+     * very large option sets open instantly.
+     */
+    public void setOptionDataSource(OptionDataSource source) {
+        setOptionAdapter(source != null ? new PagedOptionAdapter(getContext(), source) : null);
+    }
+
+    /**
+     * Like {@link #setOptionDataSource}, with an adapter that several spinners showing the
+     * same options can share, so each page is only loaded once.
+     */
+    public void setOptionAdapter(PagedOptionAdapter adapter) {
+        mOptionSource = adapter != null ? adapter.getDataSource() : null;
+        mSpinner.setAdapter(adapter);
+        applyPendingPosition();
+        updateClickHandler();
+    }
+
+    public OptionDataSource getOptionDataSource() {
+        return mOptionSource;
+    }
+
+    /**
+     * Opens a searchable, paged option list instead of the spinner popup. Only takes effect
+     * with an {@link #setOptionDataSource option data source}.
+     */
+    public void setSearchable(boolean searchable) {
+        mSearchable = searchable;
+        updateClickHandler();
+    }
+
+    public boolean isSearchable() {
+        return mSearchable;
+    }
+
+    private void updateClickHandler() {
+        mSpinner.setClickHandler(mSearchable && mOptionSource != null ? mShowSearch : null);
+    }
+
+    private final Runnable mShowSearch = new Runnable() {
+
+        @Override
+        public void run() {
+            new OptionSearchDialog(getContext(), mOptionSource, mLabel.getLabelText(),
+                    new OptionSearchDialog.OnOptionSelectedListener() {
+
+                        @Override
+                        public void onOptionSelected(int position) {
+                            mSpinner.setSelection(position);
+                        }
+                    }).show();
+        }
+    };
+
+    /**
+     * Shows {@code error} on the selected option's view, or clears it with null.
+     */
+    public void setError(String error) {
+        View selected = mSpinner.getSelectedView();
+        if (selected instanceof TextView) {
+            ((TextView) selected).setError(error);
+        }
     }
 
     public Object getSelectedItem() {
         return mSpinner.getSelectedItem();
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the position of the "nothing chosen yet" row, which keeps the label collapsed and
+     * reports {@link IdOptionDataSource#NO_ID}. Defaults to 0; pass {@link #NO_PLACEHOLDER}
+     * when every row is a real option.
+     */
+    public void setPlaceholderPosition(int position) {
+        mPlaceholderPosition = position;
+        int selected = mSpinner.getSelectedItemPosition();
+        mLabel.setContentPresent(selected >= 0 && selected != position);
+    }
+
+    public int getPlaceholderPosition() {
+        return mPlaceholderPosition;
+    }
+
+    public void setOnOptionSelectedListener(OnOptionSelectedListener listener) {
+        mOnOptionSelectedListener = listener;
+    }
+
+    /**
+     * Returns the id of the selected option: the option id with an
+     * {@link IdOptionDataSource}, the adapter's item id otherwise. Returns
+     * {@link IdOptionDataSource#NO_ID} when nothing or the placeholder is selected.
+     */
+    public long getSelectedId() {
+        int position = mSpinner.getSelectedItemPosition();
+        if (position < 0 || position == mPlaceholderPosition) {
+            return IdOptionDataSource.NO_ID;
+        }
+        return mSpinner.getSelectedItemId();
+    }
+
+    /**
+     * Selects the option with {@code id}, found in constant time with an
+     * {@link IdOptionDataSource}. Selects the placeholder, if any, when no option has that id.
+     *
+     * @return whether an option with {@code id} was found
+     */
+    public boolean setSelectedId(long id) {
+        int position = findPosition(id);
+        if (position >= 0) {
+            mSpinner.setSelection(position);
+            return true;
+        }
+        if (mPlaceholderPosition >= 0 && mPlaceholderPosition < mSpinner.getCount()) {
+            mSpinner.setSelection(mPlaceholderPosition);
+        }
+        return false;
+    }
+
+    private int findPosition(long id) {
+        if (id == IdOptionDataSource.NO_ID) {
+            return -1;
+        }
+        if (mOptionSource instanceof IdOptionDataSource) {
+            return ((IdOptionDataSource) mOptionSource).getPosition(id);
+        }
+        SpinnerAdapter adapter = mSpinner.getAdapter();
+        int count = adapter != null ? adapter.getCount() : 0;
+        for (int position = 0; position < count; position++) {
+            if (position != mPlaceholderPosition && adapter.getItemId(position) == id) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    /**
+     * Saves the field's own state under its id; the children's ids repeat in every field.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        FloatLabelSavedState state = new FloatLabelSavedState(super.onSaveInstanceState());
+        state.position = mPendingPosition >= 0
+                ? mPendingPosition
+                : mSpinner.getSelectedItemPosition();
+        state.labelShown = mLabel.isLabelShown();
+        return state;
+    }
+
+    /**
+     * Restores the selection, or keeps it until an adapter with that many options is set,
+     * and puts the label straight into its saved state.
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof FloatLabelSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        FloatLabelSavedState saved = (FloatLabelSavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+        mPendingPosition = saved.position;
+        applyPendingPosition();
+        mLabel.setContentPresent(saved.labelShown);
+        mLabel.jumpToCurrentState();
+    }
+
+    private void applyPendingPosition() {
+        SpinnerAdapter adapter = mSpinner.getAdapter();
+        if (mPendingPosition >= 0 && adapter != null && mPendingPosition < adapter.getCount()) {
+            mSpinner.setSelection(mPendingPosition);
+            mPendingPosition = -1;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package co.tonespy.floatlabel;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+/**
+ * Invisible, draw-free stand-in for a floating label that has not been shown yet. It takes
+ * up exactly the height of a one-line label with the same text size, typeface and padding,
+ * so replacing it with the real TextView on the label's first entrance does not move the
+ * field. Like a ViewStub, it hands its id, layout params and position over to that view.
+ *
+ * <p>Reads {@code android:textStyle} from its own attributes for the label it creates.
+ */
+public class FloatLabelStub extends View {
+
+    private static final String ANDROID_NS = "http://schemas.android.com/apk/res/android";
+    private static final int LABEL_PADDING_DP = 5;
+
+    private final TextPaint mPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+    private final int mTextStyle;
+
+    public FloatLabelStub(Context context) {
+        this(context, null);
+    }
+
+    public FloatLabelStub(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mTextStyle = attrs != null
+                ? attrs.getAttributeIntValue(ANDROID_NS, "textStyle", Typeface.NORMAL)
+                : Typeface.NORMAL;
+        init();
+    }
+
+    /**
+     * Creates a stub for a label with the given {@link Typeface} style, e.g.
+     * {@link Typeface#BOLD}.
+     */
+    public FloatLabelStub(Context context, int textStyle) {
+        super(context);
+        mTextStyle = textStyle;
+        init();
+    }
+
+    /**
+     * Creates the stub FloatLabel layouts declare for their label, without inflating one.
+     */
+    static FloatLabelStub create(Context context, int id, int textStyle) {
+        FloatLabelStub stub = new FloatLabelStub(context, textStyle);
+        stub.setId(id);
+        int padding = Math.round(LABEL_PADDING_DP
+                * context.getResources().getDisplayMetrics().density);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            stub.setStartPadding(padding);
+        } else {
+            stub.setPadding(padding, 0, 0, 0);
+        }
+        return stub;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void setStartPadding(int padding) {
+        setPaddingRelative(padding, 0, 0, 0);
+    }
+
+    private void init() {
+        setVisibility(INVISIBLE);
+        setFocusable(false);
+        setWillNotDraw(true);
+        setTextSize(TypedValue.COMPLEX_UNIT_SP, FloatLabelStyle.HINT_DEFAULT_SIZE);
+    }
+
+    /**
+     * Text size the label will have, used to reserve its height.
+     */
+    public void setTextSize(int unit, float size) {
+        float px = TypedValue.applyDimension(unit, size, getResources().getDisplayMetrics());
+        if (px != mPaint.getTextSize()) {
+            mPaint.setTextSize(px);
+            requestLayout();
+        }
+    }
+
+    /**
+     * Typeface the label will have, used to reserve its height.
+     */
+    public void setTypeface(Typeface tf) {
+        if (tf != mPaint.getTypeface()) {
+            mPaint.setTypeface(tf);
+            requestLayout();
+        }
+    }
+
+    public int getTextStyle() {
+        return mTextStyle;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        mPaint.getFontMetricsInt(mFontMetrics);
+        int height = getPaddingTop() + mFontMetrics.bottom - mFontMetrics.top + getPaddingBottom();
+        setMeasuredDimension(resolveSize(getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    /**
+     * Replaces this stub in its parent with an invisible label TextView and returns it.
+     */
+    public TextView inflate() {
+        TextView label = new TextView(getContext());
+        label.setId(getId());
+        label.setVisibility(INVISIBLE);
+        label.setFocusable(false);
+        label.setSingleLine(true);
+        label.setTypeface(mPaint.getTypeface(), mTextStyle);
+        label.setTextSize(TypedValue.COMPLEX_UNIT_PX, mPaint.getTextSize());
+        copyPadding(label);
+
+        ViewGroup parent = (ViewGroup) getParent();
+        if (parent != null) {
+            int index = parent.indexOfChild(this);
+            parent.removeViewInLayout(this);
+            ViewGroup.LayoutParams params = getLayoutParams();
+            if (params != null) {
+                parent.addView(label, index, params);
+            } else {
+                parent.addView(label, index);
+            }
+        }
+        return label;
+    }
+
+    private void copyPadding(TextView label) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            copyPaddingRelative(label);
+        } else {
+            label.setPadding(getPaddingLeft(), getPaddingTop(), getPaddingRight(),
+                    getPaddingBottom());
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void copyPaddingRelative(TextView label) {
+        label.setPaddingRelative(getPaddingStart(), getPaddingTop(), getPaddingEnd(),
+                getPaddingBottom());
+    }
+}
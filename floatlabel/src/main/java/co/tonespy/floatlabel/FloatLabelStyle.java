@@ -0,0 +1,369 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Typeface;
+import android.text.InputType;
+import android.util.AttributeSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable, interned set of {@code FloatLabelTextView} attributes resolved for a field.
+ *
+ * <p>Specs resolved from a style are cached per theme and style resource, so fields that
+ * share a style only parse it once; the common case of a shared style plus an inline
+ * {@code editText_hint} is served from the cache as well. Forms built in code can skip
+ * attribute parsing entirely by passing a spec from {@link Builder} to the widgets'
+ * {@code (Context, FloatLabelStyle)} constructors.
+ */
+public final class FloatLabelStyle {
+
+    public static final int HINT_DEFAULT_SIZE = 13;
+    public static final int HINT_DEFAULT_COLOR = 0xFF808080;
+    public static final int EDIT_TEXT_INPUT_TYPE =
+            InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_CAP_SENTENCES;
+
+    private static final Map<FloatLabelStyle, FloatLabelStyle> sInterned =
+            new HashMap<FloatLabelStyle, FloatLabelStyle>();
+    private static final Map<Resources.Theme, Map<StyleKey, FloatLabelStyle>> sResolved =
+            new WeakHashMap<Resources.Theme, Map<StyleKey, FloatLabelStyle>>();
+
+    private final String mHint;
+    private final int mEditColor;
+    private final int mHintColor;
+    private final float mTextSize;
+    private final Typeface mTypeface;
+    private final int mInputType;
+    private final boolean mHasInputType;
+    private final boolean mSingleLine;
+    private final int mHashCode;
+
+    FloatLabelStyle(String hint, int editColor, int hintColor, float textSize, Typeface typeface,
+                    int inputType, boolean hasInputType, boolean singleLine) {
+        mHint = hint;
+        mEditColor = editColor;
+        mHintColor = hintColor;
+        mTextSize = textSize;
+        mTypeface = typeface;
+        mInputType = inputType;
+        mHasInputType = hasInputType;
+        mSingleLine = singleLine;
+
+        int result = hint != null ? hint.hashCode() : 0;
+        result = 31 * result + editColor;
+        result = 31 * result + hintColor;
+        result = 31 * result + Float.floatToIntBits(textSize);
+        result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+        result = 31 * result + inputType;
+        result = 31 * result + (hasInputType ? 1 : 0);
+        result = 31 * result + (singleLine ? 1 : 0);
+        mHashCode = result;
+    }
+
+    /**
+     * Resolves the {@code FloatLabelTextView} attributes, falling back to {@code defaultColor}
+     * for both the edit and the hint color. Fields without inline attributes other than
+     * {@code editText_hint} are resolved from the per-theme cache.
+     */
+    public static FloatLabelStyle obtain(Context context, AttributeSet attrs, int defStyleAttr,
+                                         int defaultColor) {
+        int hintIndex = -1;
+        if (attrs != null) {
+            for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+                int attr = attrs.getAttributeNameResource(i);
+                if (attr == R.attr.editText_hint && !isThemeReference(attrs.getAttributeValue(i))) {
+                    hintIndex = i;
+                } else if (isStyleableAttr(attr)) {
+                    return parse(context, attrs, defStyleAttr, defaultColor);
+                }
+            }
+        }
+
+        FloatLabelStyle base = resolve(context, attrs, defStyleAttr, defaultColor, hintIndex >= 0);
+        if (hintIndex < 0) {
+            return base;
+        }
+        int hintRes = attrs.getAttributeResourceValue(hintIndex, 0);
+        String hint = hintRes != 0
+                ? context.getResources().getString(hintRes)
+                : attrs.getAttributeValue(hintIndex);
+        return base.withHint(hint);
+    }
+
+    /**
+     * Returns the shared instance equal to {@code style}.
+     */
+    public static FloatLabelStyle intern(FloatLabelStyle style) {
+        synchronized (sInterned) {
+            FloatLabelStyle interned = sInterned.get(style);
+            if (interned == null) {
+                sInterned.put(style, style);
+                interned = style;
+            }
+            return interned;
+        }
+    }
+
+    /**
+     * Drops every cached and interned spec. Specs already handed out stay valid.
+     */
+    public static void clearCache() {
+        synchronized (sResolved) {
+            sResolved.clear();
+        }
+        synchronized (sInterned) {
+            sInterned.clear();
+        }
+    }
+
+    /**
+     * Looks up the spec shared by every field of {@code context}'s theme that has the same
+     * style and no inline attributes, parsing it on the first miss. When the fields carry an
+     * inline hint the cached spec's hint is meaningless, so those are keyed separately.
+     */
+    private static FloatLabelStyle resolve(Context context, AttributeSet attrs, int defStyleAttr,
+                                           int defaultColor, boolean inlineHint) {
+        Resources.Theme theme = context.getTheme();
+        StyleKey key = new StyleKey(attrs != null ? attrs.getStyleAttribute() : 0, defStyleAttr,
+                defaultColor, inlineHint);
+        synchronized (sResolved) {
+            Map<StyleKey, FloatLabelStyle> styles = sResolved.get(theme);
+            if (styles == null) {
+                styles = new HashMap<StyleKey, FloatLabelStyle>();
+                sResolved.put(theme, styles);
+            }
+            FloatLabelStyle style = styles.get(key);
+            if (style == null) {
+                style = parse(context, attrs, defStyleAttr, defaultColor);
+                styles.put(key, style);
+            }
+            return style;
+        }
+    }
+
+    private static FloatLabelStyle parse(Context context, AttributeSet attrs, int defStyleAttr,
+                                         int defaultColor) {
+        return intern(parse(context, context.obtainStyledAttributes(attrs,
+                R.styleable.FloatLabelTextView, defStyleAttr, 0), defaultColor));
+    }
+
+    private static FloatLabelStyle parse(Context context, TypedArray array, int defaultColor) {
+        String hint = array.getString(R.styleable.FloatLabelTextView_editText_hint);
+        int editColor = array.getColor(R.styleable.FloatLabelTextView_editText_color,
+                defaultColor);
+        int hintColor = array.getColor(R.styleable.FloatLabelTextView_hint_color,
+                defaultColor);
+        String typeface = array.getString(R.styleable.FloatLabelTextView_typeface);
+        boolean hasInputType = array.hasValue(R.styleable.FloatLabelTextView_android_inputType);
+        int inputType = array.getInt(R.styleable.FloatLabelTextView_android_inputType,
+                EDIT_TEXT_INPUT_TYPE);
+        boolean singleLine = array.getBoolean(R.styleable.FloatLabelTextView_single_line, true);
+        float size = array.getDimension(R.styleable.FloatLabelTextView_editText_size,
+                HINT_DEFAULT_SIZE);
+        array.recycle();
+
+        return new FloatLabelStyle(hint, editColor, hintColor, size,
+                FloatLabelTypefaces.get(context, typeface),
+                inputType, hasInputType, singleLine);
+    }
+
+    private static boolean isThemeReference(String value) {
+        return value != null && value.length() > 0 && value.charAt(0) == '?';
+    }
+
+    private static boolean isStyleableAttr(int attr) {
+        for (int styleableAttr : R.styleable.FloatLabelTextView) {
+            if (styleableAttr == attr) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the interned spec equal to this one except for its hint.
+     */
+    public FloatLabelStyle withHint(String hint) {
+        if (hint == null ? mHint == null : hint.equals(mHint)) {
+            return this;
+        }
+        return new Builder(this).setHint(hint).build();
+    }
+
+    public String getHint() {
+        return mHint;
+    }
+
+    public int getEditColor() {
+        return mEditColor;
+    }
+
+    public int getHintColor() {
+        return mHintColor;
+    }
+
+    /**
+     * Label text size, in scaled pixels.
+     */
+    public float getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * Typeface named by the {@code typeface} attribute, resolved through
+     * {@link FloatLabelTypefaces}, or null when it is not set.
+     */
+    public Typeface getTypeface() {
+        return mTypeface;
+    }
+
+    public int getInputType() {
+        return mInputType;
+    }
+
+    /**
+     * Whether {@code android:inputType} was set explicitly rather than defaulted.
+     */
+    public boolean hasInputType() {
+        return mHasInputType;
+    }
+
+    public boolean isSingleLine() {
+        return mSingleLine;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FloatLabelStyle)) {
+            return false;
+        }
+        FloatLabelStyle that = (FloatLabelStyle) o;
+        return mHashCode == that.mHashCode
+                && mEditColor == that.mEditColor
+                && mHintColor == that.mHintColor
+                && Float.compare(mTextSize, that.mTextSize) == 0
+                && mTypeface == that.mTypeface
+                && mInputType == that.mInputType
+                && mHasInputType == that.mHasInputType
+                && mSingleLine == that.mSingleLine
+                && (mHint == null ? that.mHint == null : mHint.equals(that.mHint));
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    /**
+     * Builds specs in code. {@link #build()} returns interned instances, so building the same
+     * spec for many fields yields one shared object.
+     */
+    public static final class Builder {
+        private String mHint;
+        private int mEditColor = HINT_DEFAULT_COLOR;
+        private int mHintColor = HINT_DEFAULT_COLOR;
+        private float mTextSize = HINT_DEFAULT_SIZE;
+        private Typeface mTypeface;
+        private int mInputType = EDIT_TEXT_INPUT_TYPE;
+        private boolean mHasInputType;
+        private boolean mSingleLine = true;
+
+        public Builder() {
+        }
+
+        public Builder(FloatLabelStyle style) {
+            mHint = style.mHint;
+            mEditColor = style.mEditColor;
+            mHintColor = style.mHintColor;
+            mTextSize = style.mTextSize;
+            mTypeface = style.mTypeface;
+            mInputType = style.mInputType;
+            mHasInputType = style.mHasInputType;
+            mSingleLine = style.mSingleLine;
+        }
+
+        public Builder setHint(String hint) {
+            mHint = hint;
+            return this;
+        }
+
+        public Builder setEditColor(int color) {
+            mEditColor = color;
+            return this;
+        }
+
+        public Builder setHintColor(int color) {
+            mHintColor = color;
+            return this;
+        }
+
+        /**
+         * Label text size, in scaled pixels.
+         */
+        public Builder setTextSize(float size) {
+            mTextSize = size;
+            return this;
+        }
+
+        public Builder setTypeface(Typeface typeface) {
+            mTypeface = typeface;
+            return this;
+        }
+
+        public Builder setInputType(int inputType) {
+            mInputType = inputType;
+            mHasInputType = true;
+            return this;
+        }
+
+        public Builder setSingleLine(boolean singleLine) {
+            mSingleLine = singleLine;
+            return this;
+        }
+
+        public FloatLabelStyle build() {
+            return intern(new FloatLabelStyle(mHint, mEditColor, mHintColor, mTextSize,
+                    mTypeface, mInputType, mHasInputType, mSingleLine));
+        }
+    }
+
+    private static final class StyleKey {
+        private final int mStyleRes;
+        private final int mDefStyleAttr;
+        private final int mDefaultColor;
+        private final boolean mInlineHint;
+
+        StyleKey(int styleRes, int defStyleAttr, int defaultColor, boolean inlineHint) {
+            mStyleRes = styleRes;
+            mDefStyleAttr = defStyleAttr;
+            mDefaultColor = defaultColor;
+            mInlineHint = inlineHint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StyleKey)) {
+                return false;
+            }
+            StyleKey that = (StyleKey) o;
+            return mStyleRes == that.mStyleRes
+                    && mDefStyleAttr == that.mDefStyleAttr
+                    && mDefaultColor == that.mDefaultColor
+                    && mInlineHint == that.mInlineHint;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 * mStyleRes + mDefStyleAttr;
+            result = 31 * result + mDefaultColor;
+            return 31 * result + (mInlineHint ? 1 : 0);
+        }
+    }
+}
@@ -2,194 +2,96 @@ package co.tonespy.floatlabel;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
-import android.content.res.TypedArray;
 import android.graphics.Typeface;
+import android.os.Parcelable;
 import android.text.Editable;
-import android.text.InputType;
 import android.text.TextWatcher;
 import android.text.method.KeyListener;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.LayoutInflater;
-import android.view.View;
 import android.widget.EditText;
 import android.widget.LinearLayout;
-import android.widget.TextView;
-
-import com.nineoldandroids.animation.Animator;
-import com.nineoldandroids.animation.Animator.AnimatorListener;
-import com.nineoldandroids.animation.AnimatorSet;
-import com.nineoldandroids.animation.ArgbEvaluator;
-import com.nineoldandroids.animation.ObjectAnimator;
-import com.nineoldandroids.animation.ValueAnimator;
 
 
 public class FloatLabelTextView extends LinearLayout {
     private static final String TAG = "FloatLabelTextView";
 
-    private static long ANIMATION_DURATION = 400;
     private static int HINT_DEFAULT_COLOR = 0xFF808080;
-    private static int EDIT_DEFAULT_COLOR = 0xFF808080;
-    private static final int HINT_DEFAULT_COLOR_DISABLED = 0xFF2F6CB3;
-    private static int HINT_DEFAULT_SIZE = 13;
-    private static int EDIT_TEXT_INPUT_TYPE = InputType.TYPE_CLASS_TEXT|InputType.TYPE_TEXT_FLAG_CAP_SENTENCES;
 
-    private TextView mHintView;
+    private ViewLabelController mLabel;
     private EditText mEditText;
-
-    private int mHintColor;
-    private int mEditColor;
-
-    private AnimatorSet mEntranceAnimation = null;
-    private AnimatorSet mExitAnimation = null;
-    private ValueAnimator mAddColorAnimation = null;
-    private ValueAnimator mRemoveColorAnimation = null;
+    private MaskFormatter mMaskFormatter;
 
     public FloatLabelTextView(Context context) {
-        this(context, null);
+        this(context, (AttributeSet) null);
     }
 
     public FloatLabelTextView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        init(context, FloatLabelStyle.obtain(context, attrs, 0, HINT_DEFAULT_COLOR), true);
+    }
+
+    /**
+     * Creates the field from an already resolved style, skipping attribute parsing.
+     */
+    public FloatLabelTextView(Context context, FloatLabelStyle style) {
+        super(context);
+        init(context, style, false);
+    }
 
+    private void init(Context context, FloatLabelStyle style, boolean inflate) {
         setOrientation(LinearLayout.VERTICAL);
         setGravity(Gravity.LEFT);
 
-        LayoutInflater inflater = (LayoutInflater) context
-                .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        inflater.inflate(R.layout.float_label_textview, this, true);
-
-        TypedArray array = context.obtainStyledAttributes(attrs,
-                R.styleable.FloatLabelTextView, 0, 0);
-        String hint = array
-                .getString(R.styleable.FloatLabelTextView_editText_hint);
-        mEditColor = array.getColor(
-                R.styleable.FloatLabelTextView_editText_color,
-                EDIT_DEFAULT_COLOR);
-        mHintColor = array.getColor(
-                R.styleable.FloatLabelTextView_hint_color,
-                HINT_DEFAULT_COLOR);
-        String typeface = array.getString(R.styleable.FloatLabelTextView_typeface);
-
-        int inputType = array.getInt(R.styleable.FloatLabelTextView_android_inputType, EDIT_TEXT_INPUT_TYPE);
-
-        boolean singleLine = array.getBoolean(R.styleable.FloatLabelTextView_single_line, true);
-
-        float size = array
-                .getDimension(R.styleable.FloatLabelTextView_editText_size,
-                        HINT_DEFAULT_SIZE);
-        array.recycle();
-
-        mHintView = (TextView) findViewById(R.id.textview_float);
-        mEditText = (EditText) findViewById(R.id.textview_main);
-
-        mHintView.setTextColor(HINT_DEFAULT_COLOR_DISABLED);
-        mEditText.setTextColor(mEditColor);
-        mEditText.setHintTextColor(mHintColor);
+        if (inflate) {
+            LayoutInflater inflater = (LayoutInflater) context
+                    .getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+            inflater.inflate(R.layout.float_label_textview, this, true);
+
+            mLabel = ViewLabelController.forLabel(findViewById(R.id.textview_float));
+            mEditText = (EditText) findViewById(R.id.textview_main);
+        } else {
+            FloatLabelStub label = FloatLabelStub.create(context, R.id.textview_float,
+                    Typeface.BOLD);
+            addView(label, new LayoutParams(LayoutParams.WRAP_CONTENT,
+                    LayoutParams.WRAP_CONTENT));
+            mLabel = new ViewLabelController(label);
+            mEditText = new EditText(context);
+            mEditText.setId(R.id.textview_main);
+            addView(mEditText, new LayoutParams(LayoutParams.MATCH_PARENT,
+                    LayoutParams.WRAP_CONTENT));
+        }
 
-        mEditText.setTypeface(Typeface.create(typeface, Typeface.NORMAL));
-        mHintView.setTypeface(Typeface.create(typeface, Typeface.NORMAL));
+        mEditText.setTextColor(style.getEditColor());
+        mEditText.setHintTextColor(style.getHintColor());
+        mEditText.setTypeface(style.getTypeface());
 
         //setGravity(Gravity.LEFT);
 //        mEditText.setGravity(Gravity.CENTER);
 
-        mHintView.setText(hint);
-        mEditText.setHint(hint);
-        mEditText.setInputType(inputType);
-        mEditText.setSingleLine(singleLine);
-
-        mHintView.setTextSize(size);
-
-        mEditText.setOnFocusChangeListener(new OnFocusChangeListener() {
-
-            @Override
-            public void onFocusChange(View v, boolean hasFocus) {
-                if (!hasFocus) {
-                    getRemoveColorAnimation().start();
-                } else {
-                    getAddColorAnimation().start();
-                }
-            }
-        });
-
-        mEditText.addTextChangedListener(new TextWatcher() {
-
-            @Override
-            public void afterTextChanged(Editable s) {
-                if (s.length() > 0) {
-                    if (mHintView.getVisibility() == View.INVISIBLE) {
-                        getEntranceAnimation().start();
-                    }
-                } else {
-                    getExitAnimation().start();
-                }
-            }
-
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count,
-                                          int after) {
-            }
-
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before,
-                                      int count) {
-            }
-        });
+        mEditText.setHint(style.getHint());
+        mEditText.setInputType(style.getInputType());
+        mEditText.setSingleLine(style.isSingleLine());
+
+        mLabel.applyStyle(style);
+
+        mEditText.setOnFocusChangeListener(mLabel);
+        mEditText.addTextChangedListener(mLabel);
     }
 
     public void addTextChangedListener(TextWatcher watcher) {
         mEditText.addTextChangedListener(watcher);
     }
 
-    protected ValueAnimator getAddColorAnimation() {
-        if (mAddColorAnimation == null) {
-            mAddColorAnimation = ObjectAnimator.ofInt(mHintView, "textColor",
-                    HINT_DEFAULT_COLOR_DISABLED, mHintColor);
-            mAddColorAnimation.setEvaluator(new ArgbEvaluator());
-            mAddColorAnimation.setDuration(ANIMATION_DURATION);
-        }
-        return mAddColorAnimation;
+    public void removeTextChangedListener(TextWatcher watcher) {
+        mEditText.removeTextChangedListener(watcher);
     }
 
-    protected ValueAnimator getRemoveColorAnimation() {
-        if (mRemoveColorAnimation == null) {
-            mRemoveColorAnimation = ObjectAnimator.ofInt(mHintView,
-                    "textColor", mHintColor, HINT_DEFAULT_COLOR_DISABLED);
-            mRemoveColorAnimation.setEvaluator(new ArgbEvaluator());
-            mRemoveColorAnimation.setDuration(ANIMATION_DURATION);
-        }
-        return mRemoveColorAnimation;
-    }
-
-    protected AnimatorSet getExitAnimation() {
-        if (mExitAnimation == null) {
-            mExitAnimation = new AnimatorSet();
-            mExitAnimation.playTogether(
-                    ObjectAnimator.ofFloat(mHintView, "translationY", 0, 30),
-                    ObjectAnimator.ofFloat(mHintView, "alpha", 1, 0));
-            mExitAnimation.setDuration(ANIMATION_DURATION);
-            mExitAnimation.addListener(new AnimatorListener() {
-
-                @Override
-                public void onAnimationStart(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    mHintView.setVisibility(View.INVISIBLE);
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animation) {
-                }
-            });
-        }
-
-        return mExitAnimation;
+    public FloatLabelController getLabelController() {
+        return mLabel;
     }
 
     @Override
@@ -210,43 +112,12 @@ public class FloatLabelTextView extends LinearLayout {
         super.setTag(key, tag);
     }
 
-    protected AnimatorSet getEntranceAnimation() {
-        if (mEntranceAnimation == null) {
-            mEntranceAnimation = new AnimatorSet();
-            mEntranceAnimation.playTogether(
-                    ObjectAnimator.ofFloat(mHintView, "translationY", 30, 0),
-                    ObjectAnimator.ofFloat(mHintView, "alpha", 0, 1));
-            mEntranceAnimation.setDuration(ANIMATION_DURATION);
-            mEntranceAnimation.addListener(new AnimatorListener() {
-
-                @Override
-                public void onAnimationStart(Animator animation) {
-                    mHintView.setVisibility(View.VISIBLE);
-                }
-
-                @Override
-                public void onAnimationRepeat(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                }
-
-                @Override
-                public void onAnimationCancel(Animator animation) {
-                }
-            });
-        }
-
-        return mEntranceAnimation;
-    }
-
     public void setAnimationDuration(long duration) {
-        ANIMATION_DURATION = duration;
+        mLabel.setAnimationDuration(duration);
     }
 
     public void setHint(String text) {
-        mHintView.setText(text);
+        mLabel.setLabelText(text);
         mEditText.setHint(text);
     }
 
@@ -263,11 +134,11 @@ public class FloatLabelTextView extends LinearLayout {
     }
 
     public void setTextColor(ColorStateList colors) {
-        mHintView.setTextColor(colors);
+        mLabel.setLabelTextColor(colors);
     }
 
     public void setTextColor(int color) {
-        mHintView.setTextColor(color);
+        mLabel.setLabelTextColor(ColorStateList.valueOf(color));
     }
 
     public Editable getText() {
@@ -275,20 +146,20 @@ public class FloatLabelTextView extends LinearLayout {
     }
 
     public void setTextSize(float size) {
-        mHintView.setTextSize(size);
+        mLabel.setLabelTextSize(TypedValue.COMPLEX_UNIT_SP, size);
     }
 
     public void setTextSize(int unit, float size) {
-        mHintView.setTextSize(unit, size);
+        mLabel.setLabelTextSize(unit, size);
     }
 
     public void setTypeface(Typeface tf, int style) {
-        mHintView.setTypeface(tf, style);
+        mLabel.setLabelTypeface(tf, style);
         mEditText.setTypeface(tf, style);
     }
 
     public void setTypeface(Typeface tf) {
-        mHintView.setTypeface(tf);
+        mLabel.setLabelTypeface(tf);
         mEditText.setTypeface(tf);
     }
 
@@ -296,6 +167,30 @@ public class FloatLabelTextView extends LinearLayout {
         mEditText.setError(error);
     }
 
+    /**
+     * Keeps the text in the shape of {@code mask}, formatting it in place as the user types;
+     * null removes the mask and leaves the text as it is. The mask formats each edit before
+     * the label sees it, so a character the mask rejects never moves the label; watchers
+     * added earlier through {@link #addTextChangedListener} still see such characters.
+     */
+    public void setInputMask(InputMask mask) {
+        if (mMaskFormatter != null) {
+            mEditText.removeTextChangedListener(mMaskFormatter);
+            mMaskFormatter = null;
+        }
+        if (mask != null) {
+            mMaskFormatter = new MaskFormatter(mask);
+            mEditText.removeTextChangedListener(mLabel);
+            mEditText.addTextChangedListener(mMaskFormatter);
+            mEditText.addTextChangedListener(mLabel);
+            mMaskFormatter.format(mEditText.getText());
+        }
+    }
+
+    public InputMask getInputMask() {
+        return mMaskFormatter != null ? mMaskFormatter.getMask() : null;
+    }
+
     public void setInputType(int inputType) {
         mEditText.setInputType(inputType);
     }
@@ -304,4 +199,45 @@ public class FloatLabelTextView extends LinearLayout {
         mEditText.setGravity(textGravity);
     }
 
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    /**
+     * Saves the field's own state under its id; the children's ids repeat in every field.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        FloatLabelSavedState state = new FloatLabelSavedState(super.onSaveInstanceState());
+        state.text = mEditText.getText().toString();
+        state.selectionStart = mEditText.getSelectionStart();
+        state.selectionEnd = mEditText.getSelectionEnd();
+        state.labelShown = mLabel.isLabelShown();
+        return state;
+    }
+
+    /**
+     * Restores the text and puts the label straight into its saved state.
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof FloatLabelSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        FloatLabelSavedState saved = (FloatLabelSavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+        mEditText.setText(saved.text);
+        if (saved.selectionStart >= 0 && saved.selectionEnd <= mEditText.length()) {
+            mEditText.setSelection(saved.selectionStart, saved.selectionEnd);
+        }
+        mLabel.setContentPresent(saved.labelShown);
+        mLabel.jumpToCurrentState();
+    }
 }
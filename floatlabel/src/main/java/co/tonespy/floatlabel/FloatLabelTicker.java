@@ -0,0 +1,140 @@
+package co.tonespy.floatlabel;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Single frame callback that advances the label transitions of every animating
+ * {@link FloatLabelController} in the process. Active controllers are kept in a plain array
+ * and advanced from primitive state, so a frame allocates nothing no matter how many fields
+ * are animating at once.
+ *
+ * <p>Frames come from {@link Choreographer} on API 16 and later and from a main thread
+ * {@link Handler} before that. Must only be used from the main thread.
+ */
+public final class FloatLabelTicker {
+
+    private static final long FRAME_DELAY = 16;
+
+    private static FloatLabelTicker sInstance;
+
+    private final FrameSource mFrameSource;
+
+    private FloatLabelController[] mActive = new FloatLabelController[16];
+    private int mActiveCount;
+    private boolean mFrameScheduled;
+
+    private FloatLabelTicker() {
+        mFrameSource = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new ChoreographerFrameSource()
+                : new HandlerFrameSource();
+    }
+
+    public static FloatLabelTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new FloatLabelTicker();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Time base of the frames handed to {@link FloatLabelController#onFrame(long)}.
+     */
+    public static long currentTimeMillis() {
+        return SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Starts advancing {@code controller} on every frame until it reports that it is done.
+     */
+    void add(FloatLabelController controller) {
+        for (int i = 0; i < mActiveCount; i++) {
+            if (mActive[i] == controller) {
+                return;
+            }
+        }
+        if (mActiveCount == mActive.length) {
+            FloatLabelController[] active = new FloatLabelController[mActiveCount * 2];
+            System.arraycopy(mActive, 0, active, 0, mActiveCount);
+            mActive = active;
+        }
+        mActive[mActiveCount++] = controller;
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            mFrameSource.postFrame();
+        }
+    }
+
+    void remove(FloatLabelController controller) {
+        for (int i = 0; i < mActiveCount; i++) {
+            if (mActive[i] == controller) {
+                removeAt(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of controllers currently being advanced.
+     */
+    public int getActiveCount() {
+        return mActiveCount;
+    }
+
+    private void removeAt(int index) {
+        mActiveCount--;
+        mActive[index] = mActive[mActiveCount];
+        mActive[mActiveCount] = null;
+    }
+
+    private void doFrame(long frameTimeMillis) {
+        mFrameScheduled = false;
+        for (int i = mActiveCount - 1; i >= 0; i--) {
+            if (i < mActiveCount && !mActive[i].onFrame(frameTimeMillis)) {
+                removeAt(i);
+            }
+        }
+        if (mActiveCount > 0 && !mFrameScheduled) {
+            mFrameScheduled = true;
+            mFrameSource.postFrame();
+        }
+    }
+
+    private interface FrameSource {
+        void postFrame();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private final class ChoreographerFrameSource implements FrameSource,
+            Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        @Override
+        public void postFrame() {
+            mChoreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FloatLabelTicker.this.doFrame(frameTimeNanos / 1000000);
+        }
+    }
+
+    private final class HandlerFrameSource implements FrameSource, Runnable {
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void postFrame() {
+            mHandler.postDelayed(this, FRAME_DELAY);
+        }
+
+        @Override
+        public void run() {
+            doFrame(SystemClock.uptimeMillis());
+        }
+    }
+}
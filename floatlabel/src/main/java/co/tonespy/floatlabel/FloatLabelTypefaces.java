@@ -0,0 +1,97 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.Log;
+import android.util.LruCache;
+
+/**
+ * Process-wide registry for the typefaces named by the {@code typeface} attribute, so a
+ * family is loaded once instead of once per field and label.
+ *
+ * <p>Names ending in {@code .ttf} or {@code .otf} are loaded from the application's assets,
+ * anything else is treated as a system family name. Loading is serialised, so concurrent
+ * lookups of the same name never load it twice. A name that fails to load is remembered too, so
+ * a missing asset is not looked up again for every field. Call {@link #prewarm} at application
+ * start to move asset loading off the UI thread.
+ */
+public final class FloatLabelTypefaces {
+    private static final String TAG = "FloatLabelTypefaces";
+
+    private static final int MAX_SIZE = 16;
+
+    /** Cached in place of a typeface that could not be loaded. */
+    private static final Object MISSING = new Object();
+
+    private static final LruCache<String, Object> sTypefaces =
+            new LruCache<String, Object>(MAX_SIZE);
+    private static final Object sLoadLock = new Object();
+
+    private FloatLabelTypefaces() {
+    }
+
+    /**
+     * Returns the typeface for {@code name}, loading it on first use, or null if {@code name}
+     * is null or cannot be loaded.
+     */
+    public static Typeface get(Context context, String name) {
+        if (name == null) {
+            return null;
+        }
+        Object cached = sTypefaces.get(name);
+        if (cached == null) {
+            synchronized (sLoadLock) {
+                cached = sTypefaces.get(name);
+                if (cached == null) {
+                    Typeface typeface = load(context, name);
+                    cached = typeface != null ? typeface : MISSING;
+                    sTypefaces.put(name, cached);
+                }
+            }
+        }
+        return cached != MISSING ? (Typeface) cached : null;
+    }
+
+    /**
+     * Loads the given typefaces on the shared background executor.
+     */
+    public static void prewarm(Context context, final String... names) {
+        final Context appContext = context.getApplicationContext();
+        FloatLabelExecutors.getBackgroundExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                for (String name : names) {
+                    get(appContext, name);
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers an already created typeface under {@code name}.
+     */
+    public static void put(String name, Typeface typeface) {
+        sTypefaces.put(name, typeface);
+    }
+
+    public static void clear() {
+        sTypefaces.evictAll();
+    }
+
+    private static boolean isAsset(String name) {
+        return name.endsWith(".ttf") || name.endsWith(".otf");
+    }
+
+    private static Typeface load(Context context, String name) {
+        if (!isAsset(name)) {
+            return Typeface.create(name, Typeface.NORMAL);
+        }
+        try {
+            return Typeface.createFromAsset(context.getAssets(), name);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot load typeface asset " + name, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package co.tonespy.floatlabel;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds FloatLabel widgets ahead of time on the shared background executor, so a screen
+ * with many fields can take them ready-made instead of inflating each one on the UI thread.
+ *
+ * <p>Widgets are pooled per {@link Factory} and {@link FloatLabelStyle}, up to a bound per
+ * key. A pool created for an Activity is cleared when the Activity is destroyed, and every
+ * pool trims itself on memory pressure. A pool created with any other context registers
+ * itself with the application and must be {@link #release released} by its owner, or it
+ * stays registered for the life of the process. Apart from {@link #prewarm} building in the
+ * background, a pool is only used from the UI thread.
+ *
+ * <p>Up to API 22 the auto-complete and spinner widgets create a Handler for their popup,
+ * which needs a Looper, so {@link #prewarm} builds those on the UI thread, one per message.
+ */
+public class FloatLabelViewPool implements ComponentCallbacks2 {
+
+    private static final String TAG = "FloatLabelViewPool";
+    // Build.VERSION_CODES.LOLLIPOP_MR1, newer than the SDK this library compiles against
+    private static final int LOLLIPOP_MR1 = 22;
+
+    /**
+     * Builds one kind of widget from a resolved style. Called on a background thread, except
+     * for widgets that need a Looper; a factory that fails there is retried on the UI thread.
+     */
+    public interface Factory<T extends View> {
+        T create(Context context, FloatLabelStyle style);
+    }
+
+    public static final Factory<FloatLabelTextView> TEXT_VIEW =
+            new Factory<FloatLabelTextView>() {
+
+                @Override
+                public FloatLabelTextView create(Context context, FloatLabelStyle style) {
+                    return new FloatLabelTextView(context, style);
+                }
+            };
+
+    public static final Factory<FloatLabelEditText> EDIT_TEXT =
+            new Factory<FloatLabelEditText>() {
+
+                @Override
+                public FloatLabelEditText create(Context context, FloatLabelStyle style) {
+                    return new FloatLabelEditText(context, style);
+                }
+            };
+
+    public static final Factory<FloatLabelAutoCompleteTextView> AUTO_COMPLETE_TEXT_VIEW =
+            new Factory<FloatLabelAutoCompleteTextView>() {
+
+                @Override
+                public FloatLabelAutoCompleteTextView create(Context context,
+                                                             FloatLabelStyle style) {
+                    return new FloatLabelAutoCompleteTextView(context, style);
+                }
+            };
+
+    public static final Factory<FloatLabelAutoCompleteEditText> AUTO_COMPLETE_EDIT_TEXT =
+            new Factory<FloatLabelAutoCompleteEditText>() {
+
+                @Override
+                public FloatLabelAutoCompleteEditText create(Context context,
+                                                             FloatLabelStyle style) {
+                    return new FloatLabelAutoCompleteEditText(context, style);
+                }
+            };
+
+    public static final Factory<FloatLabelSpinnerView> SPINNER_VIEW =
+            new Factory<FloatLabelSpinnerView>() {
+
+                @Override
+                public FloatLabelSpinnerView create(Context context, FloatLabelStyle style) {
+                    return new FloatLabelSpinnerView(context, style);
+                }
+            };
+
+    public static final int DEFAULT_MAX_PER_KEY = 32;
+
+    private final Context mContext;
+    private final int mMaxPerKey;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Map<Key, List<View>> mIdle = new HashMap<Key, List<View>>();
+    private final Map<Key, int[]> mPending = new HashMap<Key, int[]>();
+    private int mGeneration;
+    private Application.ActivityLifecycleCallbacks mLifecycle;
+
+    public FloatLabelViewPool(Context context) {
+        this(context, DEFAULT_MAX_PER_KEY);
+    }
+
+    /**
+     * @param context   context the widgets are built with; use the Activity that shows them
+     *                  so they get its theme. Any other context requires a call to
+     *                  {@link #release()} once the pool is no longer used
+     * @param maxPerKey most idle widgets kept per kind and style
+     */
+    public FloatLabelViewPool(Context context, int maxPerKey) {
+        mContext = context;
+        mMaxPerKey = maxPerKey;
+        context.getApplicationContext().registerComponentCallbacks(this);
+        if (context instanceof Activity) {
+            watch((Activity) context);
+        }
+    }
+
+    /**
+     * Builds widgets in the background until {@code count} of them are idle or being built
+     * for this kind and style, bounded by the pool's maximum per key.
+     */
+    public <T extends View> void prewarm(final Factory<T> factory, final FloatLabelStyle style,
+                                         int count) {
+        final Key key = new Key(factory, style);
+        int[] pending = mPending.get(key);
+        if (pending == null) {
+            pending = new int[1];
+            mPending.put(key, pending);
+        }
+        List<View> idle = mIdle.get(key);
+        int missing = Math.min(count, mMaxPerKey) - pending[0] - (idle != null ? idle.size() : 0);
+        final int generation = mGeneration;
+        boolean needsLooper = needsLooper(factory);
+        for (int i = 0; i < missing; i++) {
+            pending[0]++;
+            if (needsLooper) {
+                mHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            onBuilt(key, generation, factory.create(mContext, style));
+                        }
+                    }
+                });
+                continue;
+            }
+            FloatLabelExecutors.getBackgroundExecutor().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    View built;
+                    try {
+                        built = factory.create(mContext, style);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Building off the UI thread failed, retrying on it", e);
+                        built = null;
+                    }
+                    final View view = built;
+                    mHandler.post(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            if (generation != mGeneration) {
+                                return;
+                            }
+                            onBuilt(key, generation,
+                                    view != null ? view : factory.create(mContext, style));
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a prewarmed widget for this kind and style, or builds one right away when none
+     * is ready. Must be called on the UI thread.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends View> T obtain(Factory<T> factory, FloatLabelStyle style) {
+        List<View> idle = mIdle.get(new Key(factory, style));
+        if (idle != null && !idle.isEmpty()) {
+            return (T) idle.remove(idle.size() - 1);
+        }
+        return factory.create(mContext, style);
+    }
+
+    public int getIdleCount(Factory<?> factory, FloatLabelStyle style) {
+        List<View> idle = mIdle.get(new Key(factory, style));
+        return idle != null ? idle.size() : 0;
+    }
+
+    /**
+     * Drops every idle widget and discards the ones still being built.
+     */
+    public void clear() {
+        mGeneration++;
+        mIdle.clear();
+        mPending.clear();
+    }
+
+    /**
+     * Clears the pool and stops listening for memory pressure and Activity lifecycle. Called
+     * automatically when the pool's Activity is destroyed; a pool created with any other
+     * context must call it itself.
+     */
+    public void release() {
+        clear();
+        mContext.getApplicationContext().unregisterComponentCallbacks(this);
+        if (mLifecycle != null) {
+            ((Activity) mContext).getApplication()
+                    .unregisterActivityLifecycleCallbacks(mLifecycle);
+            mLifecycle = null;
+        }
+    }
+
+    @Override
+    public void onTrimMemory(final int level) {
+        mHandler.post(new Runnable() {
+
+            @Override
+            public void run() {
+                if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                    clear();
+                } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+                    for (List<View> idle : mIdle.values()) {
+                        idle.subList(0, idle.size() / 2).clear();
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private void onBuilt(Key key, int generation, View view) {
+        if (generation != mGeneration) {
+            return;
+        }
+        int[] pending = mPending.get(key);
+        if (pending != null) {
+            pending[0]--;
+        }
+        List<View> idle = mIdle.get(key);
+        if (idle == null) {
+            idle = new ArrayList<View>();
+            mIdle.put(key, idle);
+        }
+        if (idle.size() < mMaxPerKey) {
+            idle.add(view);
+        }
+    }
+
+    /**
+     * Up to API 22 these widgets create a Handler for their popup while being built.
+     */
+    private static boolean needsLooper(Factory<?> factory) {
+        return Build.VERSION.SDK_INT <= LOLLIPOP_MR1
+                && (factory == AUTO_COMPLETE_TEXT_VIEW || factory == AUTO_COMPLETE_EDIT_TEXT
+                || factory == SPINNER_VIEW);
+    }
+
+    private void watch(final Activity activity) {
+        mLifecycle = new Application.ActivityLifecycleCallbacks() {
+
+            @Override
+            public void onActivityDestroyed(Activity destroyed) {
+                if (destroyed == activity) {
+                    release();
+                }
+            }
+
+            @Override
+            public void onActivityCreated(Activity a, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(Activity a) {
+            }
+
+            @Override
+            public void onActivityResumed(Activity a) {
+            }
+
+            @Override
+            public void onActivityPaused(Activity a) {
+            }
+
+            @Override
+            public void onActivityStopped(Activity a) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity a, Bundle outState) {
+            }
+        };
+        activity.getApplication().registerActivityLifecycleCallbacks(mLifecycle);
+    }
+
+    private static final class Key {
+        private final Factory<?> mFactory;
+        private final FloatLabelStyle mStyle;
+
+        Key(Factory<?> factory, FloatLabelStyle style) {
+            mFactory = factory;
+            mStyle = style;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mFactory == other.mFactory
+                    && (mStyle == null ? other.mStyle == null : mStyle.equals(other.mStyle));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mFactory.hashCode() + (mStyle != null ? mStyle.hashCode() : 0);
+        }
+    }
+}
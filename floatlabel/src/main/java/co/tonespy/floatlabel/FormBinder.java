@@ -0,0 +1,260 @@
+package co.tonespy.floatlabel;
+
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.TextView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attaches FloatLabel widgets to the fields of a {@link FormStore} and detaches them again,
+ * so a long form can live in a RecyclerView or ListView and only pay for its visible rows.
+ * Call {@link #bind} when a row shows a field and {@link #unbind} when it is recycled;
+ * binding a widget to another field unbinds it first. The binder only holds widgets that
+ * are bound, and unbinding removes its watcher or listener from the widget.
+ *
+ * <p>Binding pushes the field's hint, value and error into the widget and puts its label
+ * straight into the stored state, so rebinding never animates. While bound, edits flow into
+ * the store and store changes flow into the widget. A bound {@link FloatLabelSpinnerView}'s
+ * {@link FloatLabelSpinnerView.OnOptionSelectedListener} belongs to the binder.
+ *
+ * <p>Supports {@link FloatLabelTextView}, {@link FloatLabelAutoCompleteTextView},
+ * {@link FloatLabelEditText}, {@link FloatLabelAutoCompleteEditText} and
+ * {@link FloatLabelSpinnerView}. Must be used from the UI thread.
+ */
+public class FormBinder implements FormStore.OnFieldChangeListener {
+
+    private final FormStore mStore;
+    private final Map<View, Binding> mBindings = new HashMap<View, Binding>();
+    /** First binding of each bound field; the rest follow {@link Binding#mNextForField}. */
+    private final SparseArray<Binding> mFieldBindings = new SparseArray<Binding>();
+
+    public FormBinder(FormStore store) {
+        mStore = store;
+        mStore.addOnFieldChangeListener(this);
+    }
+
+    public FormStore getStore() {
+        return mStore;
+    }
+
+    /**
+     * Shows {@code field} in {@code widget} without animating its label.
+     */
+    public void bind(View widget, int field) {
+        Binding binding = mBindings.get(widget);
+        if (binding == null) {
+            binding = new Binding(widget);
+            mBindings.put(widget, binding);
+        }
+        if (binding.mField != field) {
+            if (binding.mField >= 0) {
+                unlink(binding);
+            }
+            binding.mField = field;
+            binding.mNextForField = mFieldBindings.get(field);
+            mFieldBindings.put(field, binding);
+        }
+        binding.push(true);
+    }
+
+    /**
+     * Detaches {@code widget} from its field; its edits no longer reach the store.
+     */
+    public void unbind(View widget) {
+        Binding binding = mBindings.remove(widget);
+        if (binding != null) {
+            unlink(binding);
+            binding.detach();
+        }
+    }
+
+    /**
+     * Field {@code widget} is bound to, or -1.
+     */
+    public int getBoundField(View widget) {
+        Binding binding = mBindings.get(widget);
+        return binding != null ? binding.mField : -1;
+    }
+
+    /**
+     * Detaches every widget and stops following the store.
+     */
+    public void release() {
+        for (Binding binding : mBindings.values()) {
+            binding.detach();
+        }
+        mBindings.clear();
+        mFieldBindings.clear();
+        mStore.removeOnFieldChangeListener(this);
+    }
+
+    @Override
+    public void onFieldChanged(FormStore store, int field) {
+        for (Binding binding = mFieldBindings.get(field); binding != null;
+             binding = binding.mNextForField) {
+            if (!binding.mPushing) {
+                binding.push(false);
+            }
+        }
+    }
+
+    private void unlink(Binding binding) {
+        Binding previous = null;
+        Binding current = mFieldBindings.get(binding.mField);
+        while (current != binding) {
+            previous = current;
+            current = current.mNextForField;
+        }
+        if (previous != null) {
+            previous.mNextForField = binding.mNextForField;
+        } else if (binding.mNextForField != null) {
+            mFieldBindings.put(binding.mField, binding.mNextForField);
+        } else {
+            mFieldBindings.delete(binding.mField);
+        }
+        binding.mNextForField = null;
+    }
+
+    private static FloatLabelController getController(View widget) {
+        if (widget instanceof FloatLabelTextView) {
+            return ((FloatLabelTextView) widget).getLabelController();
+        } else if (widget instanceof FloatLabelAutoCompleteTextView) {
+            return ((FloatLabelAutoCompleteTextView) widget).getLabelController();
+        } else if (widget instanceof FloatLabelEditText) {
+            return ((FloatLabelEditText) widget).getLabelController();
+        } else if (widget instanceof FloatLabelAutoCompleteEditText) {
+            return ((FloatLabelAutoCompleteEditText) widget).getLabelController();
+        } else if (widget instanceof FloatLabelSpinnerView) {
+            return ((FloatLabelSpinnerView) widget).getLabelController();
+        }
+        throw new IllegalArgumentException("Not a FloatLabel widget: " + widget);
+    }
+
+    private final class Binding implements TextWatcher,
+            FloatLabelSpinnerView.OnOptionSelectedListener {
+        private final View mWidget;
+        private final FloatLabelController mController;
+        private int mField = -1;
+        private Binding mNextForField;
+        private boolean mPushing;
+
+        Binding(View widget) {
+            mWidget = widget;
+            mController = getController(widget);
+            if (widget instanceof FloatLabelTextView) {
+                ((FloatLabelTextView) widget).addTextChangedListener(this);
+            } else if (widget instanceof FloatLabelAutoCompleteTextView) {
+                ((FloatLabelAutoCompleteTextView) widget).addTextChangedListener(this);
+            } else if (widget instanceof TextView) {
+                ((TextView) widget).addTextChangedListener(this);
+            } else {
+                ((FloatLabelSpinnerView) widget).setOnOptionSelectedListener(this);
+            }
+        }
+
+        void detach() {
+            mField = -1;
+            if (mWidget instanceof FloatLabelTextView) {
+                ((FloatLabelTextView) mWidget).removeTextChangedListener(this);
+            } else if (mWidget instanceof FloatLabelAutoCompleteTextView) {
+                ((FloatLabelAutoCompleteTextView) mWidget).removeTextChangedListener(this);
+            } else if (mWidget instanceof TextView) {
+                ((TextView) mWidget).removeTextChangedListener(this);
+            } else {
+                ((FloatLabelSpinnerView) mWidget).setOnOptionSelectedListener(null);
+            }
+        }
+
+        /**
+         * Copies the field's state into the widget, leaving an unchanged value alone so the
+         * cursor stays put; when {@code jump} is set the label lands in its final state.
+         */
+        void push(boolean jump) {
+            int field = mField;
+            mPushing = true;
+            try {
+                CharSequence hint = mStore.getHint(field);
+                String hintText = hint != null ? hint.toString() : null;
+                CharSequence error = mStore.getError(field);
+                String errorText = error != null ? error.toString() : null;
+                if (mWidget instanceof FloatLabelTextView) {
+                    FloatLabelTextView view = (FloatLabelTextView) mWidget;
+                    view.setHint(hintText);
+                    if (!TextUtils.equals(view.getText(), mStore.getText(field))) {
+                        view.setText(mStore.getText(field));
+                    }
+                    view.setError(errorText);
+                } else if (mWidget instanceof FloatLabelAutoCompleteTextView) {
+                    FloatLabelAutoCompleteTextView view = (FloatLabelAutoCompleteTextView) mWidget;
+                    view.setHint(hintText);
+                    if (!TextUtils.equals(view.getText(), mStore.getText(field))) {
+                        view.setText(mStore.getText(field));
+                    }
+                    view.setError(errorText);
+                } else if (mWidget instanceof TextView) {
+                    TextView view = (TextView) mWidget;
+                    view.setHint(hint);
+                    mController.setLabelText(hint);
+                    if (!TextUtils.equals(view.getText(), mStore.getText(field))) {
+                        view.setText(mStore.getText(field));
+                    }
+                    view.setError(error);
+                } else {
+                    FloatLabelSpinnerView view = (FloatLabelSpinnerView) mWidget;
+                    view.setHint(hintText);
+                    if (view.getSelectedId() != mStore.getSelectedId(field)) {
+                        view.setSelectedId(mStore.getSelectedId(field));
+                    }
+                    view.setError(errorText);
+                }
+                mController.setContentPresent(mStore.isLabelShown(field));
+                if (jump) {
+                    mController.jumpToCurrentState();
+                }
+            } finally {
+                mPushing = false;
+            }
+        }
+
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        }
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {
+        }
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            if (mField < 0 || mPushing) {
+                return;
+            }
+            mPushing = true;
+            try {
+                mStore.setFlags(mField, FormStore.FLAG_DIRTY, true);
+                mStore.setText(mField, s);
+            } finally {
+                mPushing = false;
+            }
+        }
+
+        @Override
+        public void onOptionSelected(FloatLabelSpinnerView view, int position, long id) {
+            if (mField < 0 || mPushing || mStore.getSelectedId(mField) == id) {
+                return;
+            }
+            mPushing = true;
+            try {
+                mStore.setFlags(mField, FormStore.FLAG_DIRTY, true);
+                mStore.setSelectedId(mField, id);
+            } finally {
+                mPushing = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Creates the views of a {@link FormSchema} in code. Widgets are constructed directly from
+ * the schema's interned styles, without inflating layouts, parsing attributes or using
+ * reflection, so building a form costs a small constant per field. Spinners with the same
+ * options share one {@link PagedOptionAdapter}, and auto-complete fields share their
+ * suggestion sources. With a {@link FloatLabelViewPool}, widgets prewarmed with a field's
+ * {@link FormSchema#getStyle style} are used first; the field's hint is applied when the
+ * widget is bound.
+ *
+ * <p>The form's values live in a {@link FormStore}, bound to the widgets with a
+ * {@link FormBinder}.
+ */
+public class FormBuilder {
+
+    private final Context mContext;
+    private FloatLabelViewPool mPool;
+
+    public FormBuilder(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Takes widgets from {@code pool} when it has them ready.
+     */
+    public FormBuilder setViewPool(FloatLabelViewPool pool) {
+        mPool = pool;
+        return this;
+    }
+
+    /**
+     * Builds every field of {@code schema} into a new vertical LinearLayout.
+     */
+    public FloatLabelForm build(FormSchema schema) {
+        LinearLayout container = new LinearLayout(mContext);
+        container.setOrientation(LinearLayout.VERTICAL);
+        return build(schema, container);
+    }
+
+    /**
+     * Builds every field of {@code schema} and appends it to {@code container}.
+     */
+    public FloatLabelForm build(FormSchema schema, ViewGroup container) {
+        int count = schema.getFieldCount();
+        View[] views = new View[count];
+        FormStore store = new FormStore(count);
+        FormBinder binder = new FormBinder(store);
+        Map<OptionDataSource, PagedOptionAdapter> adapters =
+                new IdentityHashMap<OptionDataSource, PagedOptionAdapter>();
+
+        for (int field = 0; field < count; field++) {
+            FloatLabelStyle style = schema.getStyle(field);
+            View view;
+            switch (schema.getType(field)) {
+                case FormSchema.TYPE_AUTO_COMPLETE:
+                    FloatLabelAutoCompleteTextView autoComplete =
+                            create(FloatLabelViewPool.AUTO_COMPLETE_TEXT_VIEW, style);
+                    SuggestionSource suggestions = schema.getSuggestionSource(field);
+                    if (suggestions != null) {
+                        autoComplete.setSuggestionSource(suggestions);
+                    }
+                    view = autoComplete;
+                    break;
+                case FormSchema.TYPE_SPINNER:
+                    FloatLabelSpinnerView spinner =
+                            create(FloatLabelViewPool.SPINNER_VIEW, style);
+                    OptionDataSource options = schema.getOptionDataSource(field);
+                    PagedOptionAdapter adapter = adapters.get(options);
+                    if (adapter == null) {
+                        adapter = new PagedOptionAdapter(mContext, options);
+                        adapters.put(options, adapter);
+                    }
+                    spinner.setOptionAdapter(adapter);
+                    view = spinner;
+                    break;
+                default:
+                    view = create(FloatLabelViewPool.TEXT_VIEW, style);
+                    break;
+            }
+            views[field] = view;
+            store.addField(schema.getHint(field));
+            binder.bind(view, field);
+            container.addView(view, new ViewGroup.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
+        return new FloatLabelForm(schema, container, views, store, binder);
+    }
+
+    private <T extends View> T create(FloatLabelViewPool.Factory<T> factory,
+                                      FloatLabelStyle style) {
+        return mPool != null ? mPool.obtain(factory, style) : factory.create(mContext, style);
+    }
+}
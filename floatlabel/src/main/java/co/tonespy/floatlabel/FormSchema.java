@@ -0,0 +1,144 @@
+package co.tonespy.floatlabel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable description of a form built in code, e.g. from a server-driven JSON payload:
+ * an ordered list of text, auto-complete and spinner fields, each with a key, a style and,
+ * for the latter two, the source of its suggestions or options. A field's hint is kept apart
+ * from its style, and styles are interned without their hint, so fields that look alike share
+ * one spec whatever their labels say. Turn a schema into views with {@link FormBuilder}.
+ */
+public final class FormSchema {
+
+    public static final int TYPE_TEXT = 0;
+    public static final int TYPE_AUTO_COMPLETE = 1;
+    public static final int TYPE_SPINNER = 2;
+
+    private final int[] mTypes;
+    private final String[] mKeys;
+    private final FloatLabelStyle[] mStyles;
+    private final String[] mHints;
+    private final Object[] mSources;
+    private final Map<String, Integer> mIndices;
+
+    private FormSchema(Builder builder) {
+        int count = builder.mTypes.size();
+        mTypes = new int[count];
+        mKeys = builder.mKeys.toArray(new String[count]);
+        mStyles = builder.mStyles.toArray(new FloatLabelStyle[count]);
+        mHints = builder.mHints.toArray(new String[count]);
+        mSources = builder.mSources.toArray();
+        mIndices = new HashMap<String, Integer>(count * 2);
+        for (int i = 0; i < count; i++) {
+            mTypes[i] = builder.mTypes.get(i);
+            mIndices.put(mKeys[i], i);
+        }
+    }
+
+    public int getFieldCount() {
+        return mTypes.length;
+    }
+
+    /**
+     * One of {@link #TYPE_TEXT}, {@link #TYPE_AUTO_COMPLETE} or {@link #TYPE_SPINNER}.
+     */
+    public int getType(int field) {
+        return mTypes[field];
+    }
+
+    public String getKey(int field) {
+        return mKeys[field];
+    }
+
+    /**
+     * The field's style without a hint, the same instance for every field styled alike.
+     * This is the style to {@link FloatLabelViewPool#prewarm prewarm} a pool with.
+     */
+    public FloatLabelStyle getStyle(int field) {
+        return mStyles[field];
+    }
+
+    public String getHint(int field) {
+        return mHints[field];
+    }
+
+    /**
+     * The {@link SuggestionSource} of an auto-complete field, if any.
+     */
+    public SuggestionSource getSuggestionSource(int field) {
+        return mTypes[field] == TYPE_AUTO_COMPLETE ? (SuggestionSource) mSources[field] : null;
+    }
+
+    /**
+     * The {@link OptionDataSource} of a spinner field.
+     */
+    public OptionDataSource getOptionDataSource(int field) {
+        return mTypes[field] == TYPE_SPINNER ? (OptionDataSource) mSources[field] : null;
+    }
+
+    /**
+     * Index of the field with {@code key}, or -1.
+     */
+    public int indexOf(String key) {
+        Integer index = mIndices.get(key);
+        return index != null ? index : -1;
+    }
+
+    public static final class Builder {
+        private final List<Integer> mTypes = new ArrayList<Integer>();
+        private final List<String> mKeys = new ArrayList<String>();
+        private final List<FloatLabelStyle> mStyles = new ArrayList<FloatLabelStyle>();
+        private final List<String> mHints = new ArrayList<String>();
+        private final List<Object> mSources = new ArrayList<Object>();
+        private final Set<String> mKeySet = new HashSet<String>();
+
+        /**
+         * Adds a text field labeled {@code hint}, otherwise styled like {@code style}.
+         */
+        public Builder addTextField(String key, String hint, FloatLabelStyle style) {
+            return add(TYPE_TEXT, key, hint, style, null);
+        }
+
+        /**
+         * Adds an auto-complete field; {@code suggestions} may be null and is shared as is.
+         */
+        public Builder addAutoCompleteField(String key, String hint, FloatLabelStyle style,
+                                            SuggestionSource suggestions) {
+            return add(TYPE_AUTO_COMPLETE, key, hint, style, suggestions);
+        }
+
+        /**
+         * Adds a spinner field; spinners with the same {@code options} share one adapter.
+         */
+        public Builder addSpinnerField(String key, String hint, FloatLabelStyle style,
+                                       OptionDataSource options) {
+            if (options == null) {
+                throw new IllegalArgumentException("Spinner field " + key + " needs options");
+            }
+            return add(TYPE_SPINNER, key, hint, style, options);
+        }
+
+        public FormSchema build() {
+            return new FormSchema(this);
+        }
+
+        private Builder add(int type, String key, String hint, FloatLabelStyle style,
+                            Object source) {
+            if (!mKeySet.add(key)) {
+                throw new IllegalArgumentException("Duplicate field key " + key);
+            }
+            mTypes.add(type);
+            mKeys.add(key);
+            mStyles.add(FloatLabelStyle.intern(style.withHint(null)));
+            mHints.add(hint);
+            mSources.add(source);
+            return this;
+        }
+    }
+}
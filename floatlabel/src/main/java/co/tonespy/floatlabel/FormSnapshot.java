@@ -0,0 +1,31 @@
+package co.tonespy.floatlabel;
+
+/**
+ * Immutable copy of the values of a {@link FormStore}, safe to read from any thread.
+ */
+public final class FormSnapshot {
+
+    private final String[] mTexts;
+    private final long[] mSelectedIds;
+
+    FormSnapshot(String[] texts, long[] selectedIds) {
+        mTexts = texts;
+        mSelectedIds = selectedIds;
+    }
+
+    public int getFieldCount() {
+        return mTexts.length;
+    }
+
+    /**
+     * Returns the field's text, never null.
+     */
+    public String getText(int field) {
+        String text = mTexts[field];
+        return text != null ? text : "";
+    }
+
+    public long getSelectedId(int field) {
+        return mSelectedIds[field];
+    }
+}
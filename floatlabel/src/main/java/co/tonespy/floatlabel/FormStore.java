@@ -0,0 +1,212 @@
+package co.tonespy.floatlabel;
+
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * State of a form kept outside its views, so fields can be recycled and only the visible
+ * ones need a widget. Every field is an index into parallel arrays holding its hint, text,
+ * selected option id, error and flags; a {@link FormBinder} moves that state in and out of
+ * the widgets that happen to show a field.
+ *
+ * <p>Must be used from the UI thread.
+ */
+public class FormStore {
+
+    /**
+     * Notified whenever a field's state changes, whether from a widget or from code.
+     */
+    public interface OnFieldChangeListener {
+        void onFieldChanged(FormStore store, int field);
+    }
+
+    /** The field's label is shown. */
+    public static final int FLAG_LABEL_SHOWN = 1;
+    /** The field has been edited since it was added or last {@link #clearFlag cleared}. */
+    public static final int FLAG_DIRTY = 1 << 1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int mCount;
+    private CharSequence[] mHints;
+    private String[] mTexts;
+    private long[] mSelectedIds;
+    private CharSequence[] mErrors;
+    private int[] mFlags;
+    private int[] mVersions;
+
+    private final List<OnFieldChangeListener> mListeners = new ArrayList<OnFieldChangeListener>();
+
+    public FormStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FormStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        mHints = new CharSequence[capacity];
+        mTexts = new String[capacity];
+        mSelectedIds = new long[capacity];
+        mErrors = new CharSequence[capacity];
+        mFlags = new int[capacity];
+        mVersions = new int[capacity];
+    }
+
+    /**
+     * Appends an empty field and returns its index.
+     */
+    public int addField(CharSequence hint) {
+        if (mCount == mFlags.length) {
+            int capacity = mCount * 2;
+            mHints = Arrays.copyOf(mHints, capacity);
+            mTexts = Arrays.copyOf(mTexts, capacity);
+            mSelectedIds = Arrays.copyOf(mSelectedIds, capacity);
+            mErrors = Arrays.copyOf(mErrors, capacity);
+            mFlags = Arrays.copyOf(mFlags, capacity);
+            mVersions = Arrays.copyOf(mVersions, capacity);
+        }
+        int field = mCount++;
+        mHints[field] = hint;
+        mSelectedIds[field] = IdOptionDataSource.NO_ID;
+        return field;
+    }
+
+    public int getFieldCount() {
+        return mCount;
+    }
+
+    public CharSequence getHint(int field) {
+        return mHints[check(field)];
+    }
+
+    public void setHint(int field, CharSequence hint) {
+        mHints[check(field)] = hint;
+        notifyChanged(field);
+    }
+
+    /**
+     * Returns the field's text, never null.
+     */
+    public String getText(int field) {
+        String text = mTexts[check(field)];
+        return text != null ? text : "";
+    }
+
+    /**
+     * Sets the field's text; the label follows whether there is any.
+     */
+    public void setText(int field, CharSequence text) {
+        String value = text != null ? text.toString() : null;
+        if (TextUtils.equals(value, mTexts[check(field)])) {
+            return;
+        }
+        mTexts[field] = value;
+        mVersions[field]++;
+        setFlags(field, FLAG_LABEL_SHOWN, !TextUtils.isEmpty(value));
+        notifyChanged(field);
+    }
+
+    public long getSelectedId(int field) {
+        return mSelectedIds[check(field)];
+    }
+
+    /**
+     * Sets the id of the field's selected option; the label is shown for any id but
+     * {@link IdOptionDataSource#NO_ID}.
+     */
+    public void setSelectedId(int field, long id) {
+        if (mSelectedIds[check(field)] == id) {
+            return;
+        }
+        mSelectedIds[field] = id;
+        mVersions[field]++;
+        setFlags(field, FLAG_LABEL_SHOWN, id != IdOptionDataSource.NO_ID);
+        notifyChanged(field);
+    }
+
+    /**
+     * Counter that changes whenever the field's text or selected id does, and only then.
+     */
+    public int getValueVersion(int field) {
+        return mVersions[check(field)];
+    }
+
+    public CharSequence getError(int field) {
+        return mErrors[check(field)];
+    }
+
+    /**
+     * Sets the field's error, or clears it with null.
+     */
+    public void setError(int field, CharSequence error) {
+        if (TextUtils.equals(error, mErrors[check(field)])) {
+            return;
+        }
+        mErrors[field] = error;
+        notifyChanged(field);
+    }
+
+    public boolean hasFlag(int field, int flag) {
+        return (mFlags[check(field)] & flag) != 0;
+    }
+
+    public void setFlag(int field, int flag) {
+        if ((mFlags[check(field)] & flag) != flag) {
+            mFlags[field] |= flag;
+            notifyChanged(field);
+        }
+    }
+
+    public void clearFlag(int field, int flag) {
+        if ((mFlags[check(field)] & flag) != 0) {
+            mFlags[field] &= ~flag;
+            notifyChanged(field);
+        }
+    }
+
+    public boolean isLabelShown(int field) {
+        return hasFlag(field, FLAG_LABEL_SHOWN);
+    }
+
+    /**
+     * Copies every field's text and selected id, for reading off the UI thread.
+     */
+    public FormSnapshot snapshot() {
+        return new FormSnapshot(Arrays.copyOf(mTexts, mCount),
+                Arrays.copyOf(mSelectedIds, mCount));
+    }
+
+    public void addOnFieldChangeListener(OnFieldChangeListener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeOnFieldChangeListener(OnFieldChangeListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Sets or clears {@code flags} without notifying, as part of a change that notifies.
+     */
+    void setFlags(int field, int flags, boolean set) {
+        if (set) {
+            mFlags[field] |= flags;
+        } else {
+            mFlags[field] &= ~flags;
+        }
+    }
+
+    private void notifyChanged(int field) {
+        for (int i = mListeners.size() - 1; i >= 0; i--) {
+            mListeners.get(i).onFieldChanged(this, field);
+        }
+    }
+
+    private int check(int field) {
+        if (field < 0 || field >= mCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " of " + mCount);
+        }
+        return field;
+    }
+}
@@ -0,0 +1,422 @@
+package co.tonespy.floatlabel;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates the fields of a {@link FormStore} off the UI thread and writes the errors back
+ * into the store, from where a {@link FormBinder} shows them on whichever widgets are
+ * bound. Works the same for text, auto-complete and spinner fields.
+ *
+ * <p>A field is revalidated once its value has been stable for its debounce delay, on the
+ * shared background executor. A newer change to the field discards any validation still
+ * running for it. Rules may read other fields: a change then revalidates the fields that
+ * depend on it, transitively, but only those already edited or showing an error. Errors
+ * are applied to the store in one batch per frame. {@link #validateAll} checks the whole
+ * form at once, split across the executor's threads.
+ *
+ * <p>Apart from the rules themselves, must be used from the UI thread.
+ */
+public class FormValidator implements FormStore.OnFieldChangeListener {
+
+    /**
+     * Notified once {@link #validateAll} has applied every field's error.
+     */
+    public interface OnValidatedListener {
+        void onValidated(FormValidator validator, int errorCount);
+    }
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    private static final int FIELDS_PER_TASK = 32;
+    private static final long FRAME_DELAY = 16;
+
+    private final FormStore mStore;
+    private Executor mExecutor = FloatLabelExecutors.getBackgroundExecutor();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final FrameSource mFrameSource;
+
+    private int mCapacity;
+    private FieldRule[] mRules = new FieldRule[0];
+    private long[] mDebounce = new long[0];
+    private int[][] mDependents = new int[0][];
+    private int[] mSeenVersions = new int[0];
+    private int[] mGenerations = new int[0];
+    private FieldTask[] mTasks = new FieldTask[0];
+    private int[] mVisited = new int[0];
+    /** Breadth-first queue of {@link #onFieldChanged}; each field is queued at most once. */
+    private int[] mQueue = new int[0];
+    private int mVisitStamp;
+    /** Incremented by {@link #release}; runs started before it do not report back. */
+    private int mReleaseCount;
+    private FormSnapshot mSnapshot;
+
+    private final Object mLock = new Object();
+    private int[] mPendingFields = new int[16];
+    private int[] mPendingGenerations = new int[16];
+    private CharSequence[] mPendingErrors = new CharSequence[16];
+    private ValidateAll[] mPendingRunOf = new ValidateAll[16];
+    private int mPendingCount;
+    private final List<ValidateAll> mPendingRuns = new ArrayList<ValidateAll>();
+    private boolean mBatchScheduled;
+
+    private final Runnable mScheduleFrame = new Runnable() {
+
+        @Override
+        public void run() {
+            mFrameSource.postFrame();
+        }
+    };
+
+    public FormValidator(FormStore store) {
+        mStore = store;
+        mFrameSource = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new ChoreographerFrameSource()
+                : new HandlerFrameSource();
+        ensureCapacity();
+        store.addOnFieldChangeListener(this);
+    }
+
+    /**
+     * Adds a rule to {@code field}, after any it already has. {@code dependsOn} lists the
+     * other fields the rule reads, so changing them revalidates this one.
+     */
+    public FormValidator addRule(int field, FieldRule rule, int... dependsOn) {
+        ensureCapacity();
+        FieldRule existing = mRules[field];
+        mRules[field] = existing == null ? rule : FieldRules.all(existing, rule);
+        for (int dependency : dependsOn) {
+            int[] dependents = mDependents[dependency];
+            dependents = dependents == null ? new int[1] : Arrays.copyOf(dependents,
+                    dependents.length + 1);
+            dependents[dependents.length - 1] = field;
+            mDependents[dependency] = dependents;
+        }
+        return this;
+    }
+
+    /**
+     * Sets how long {@code field} must stay unchanged before it is revalidated.
+     */
+    public FormValidator setDebounce(int field, long millis) {
+        ensureCapacity();
+        mDebounce[field] = millis;
+        return this;
+    }
+
+    /**
+     * Sets the executor rules run on, the shared background executor by default.
+     */
+    public void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Validates every field with rules right away, in parallel, cancelling pending and
+     * running validations of single fields.
+     */
+    public void validateAll(OnValidatedListener listener) {
+        ensureCapacity();
+        FormSnapshot snapshot = snapshot();
+        int[] fields = new int[mCapacity];
+        int[] generations = new int[mCapacity];
+        FieldRule[] rules = new FieldRule[mCapacity];
+        int count = 0;
+        for (int field = 0; field < mCapacity; field++) {
+            if (mRules[field] != null) {
+                if (mTasks[field] != null) {
+                    mHandler.removeCallbacks(mTasks[field]);
+                }
+                fields[count] = field;
+                rules[count] = mRules[field];
+                generations[count] = ++mGenerations[field];
+                count++;
+            }
+        }
+        int chunks = (count + FIELDS_PER_TASK - 1) / FIELDS_PER_TASK;
+        ValidateAll run = new ValidateAll(listener, chunks, mReleaseCount);
+        if (count == 0) {
+            synchronized (mLock) {
+                mPendingRuns.add(run);
+                scheduleBatch();
+            }
+            return;
+        }
+        for (int start = 0; start < count; start += FIELDS_PER_TASK) {
+            mExecutor.execute(new ValidateChunk(run, snapshot, fields, rules, generations,
+                    start, Math.min(start + FIELDS_PER_TASK, count)));
+        }
+    }
+
+    /**
+     * Stops following the store and drops any validation still pending. Listeners of
+     * {@link #validateAll} runs still in flight are not called.
+     */
+    public void release() {
+        mStore.removeOnFieldChangeListener(this);
+        mReleaseCount++;
+        for (int field = 0; field < mCapacity; field++) {
+            mGenerations[field]++;
+            if (mTasks[field] != null) {
+                mHandler.removeCallbacks(mTasks[field]);
+            }
+        }
+    }
+
+    @Override
+    public void onFieldChanged(FormStore store, int field) {
+        ensureCapacity();
+        int version = store.getValueVersion(field);
+        if (mSeenVersions[field] == version) {
+            return;
+        }
+        mSeenVersions[field] = version;
+        mSnapshot = null;
+
+        int stamp = ++mVisitStamp;
+        mVisited[field] = stamp;
+        schedule(field);
+        int[] queue = mQueue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = field;
+        while (head < tail) {
+            int[] dependents = mDependents[queue[head++]];
+            if (dependents == null) {
+                continue;
+            }
+            for (int dependent : dependents) {
+                if (mVisited[dependent] == stamp) {
+                    continue;
+                }
+                mVisited[dependent] = stamp;
+                queue[tail++] = dependent;
+                if (store.hasFlag(dependent, FormStore.FLAG_DIRTY)
+                        || store.getError(dependent) != null) {
+                    schedule(dependent);
+                }
+            }
+        }
+    }
+
+    private void schedule(int field) {
+        if (mRules[field] == null) {
+            return;
+        }
+        mGenerations[field]++;
+        FieldTask task = mTasks[field];
+        if (task == null) {
+            task = new FieldTask(field);
+            mTasks[field] = task;
+        } else {
+            mHandler.removeCallbacks(task);
+        }
+        mHandler.postDelayed(task, mDebounce[field]);
+    }
+
+    private FormSnapshot snapshot() {
+        if (mSnapshot == null) {
+            mSnapshot = mStore.snapshot();
+        }
+        return mSnapshot;
+    }
+
+    private void ensureCapacity() {
+        int count = mStore.getFieldCount();
+        if (count <= mCapacity) {
+            return;
+        }
+        mRules = Arrays.copyOf(mRules, count);
+        mDependents = Arrays.copyOf(mDependents, count);
+        mSeenVersions = Arrays.copyOf(mSeenVersions, count);
+        mGenerations = Arrays.copyOf(mGenerations, count);
+        mTasks = Arrays.copyOf(mTasks, count);
+        mVisited = Arrays.copyOf(mVisited, count);
+        mQueue = new int[count];
+        mDebounce = Arrays.copyOf(mDebounce, count);
+        Arrays.fill(mDebounce, mCapacity, count, DEFAULT_DEBOUNCE_MILLIS);
+        for (int field = mCapacity; field < count; field++) {
+            mSeenVersions[field] = mStore.getValueVersion(field);
+        }
+        mCapacity = count;
+        mSnapshot = null;
+    }
+
+    /**
+     * Queues a result for the next batch, on behalf of {@code run} if it is not null. Called
+     * from any thread.
+     */
+    private void deliver(int field, int generation, CharSequence error, ValidateAll run) {
+        synchronized (mLock) {
+            if (mPendingCount == mPendingFields.length) {
+                int capacity = mPendingCount * 2;
+                mPendingFields = Arrays.copyOf(mPendingFields, capacity);
+                mPendingGenerations = Arrays.copyOf(mPendingGenerations, capacity);
+                mPendingErrors = Arrays.copyOf(mPendingErrors, capacity);
+                mPendingRunOf = Arrays.copyOf(mPendingRunOf, capacity);
+            }
+            mPendingFields[mPendingCount] = field;
+            mPendingGenerations[mPendingCount] = generation;
+            mPendingErrors[mPendingCount] = error;
+            mPendingRunOf[mPendingCount] = run;
+            mPendingCount++;
+            scheduleBatch();
+        }
+    }
+
+    private void scheduleBatch() {
+        if (!mBatchScheduled) {
+            mBatchScheduled = true;
+            mHandler.post(mScheduleFrame);
+        }
+    }
+
+    private void applyBatch() {
+        int count;
+        int[] fields;
+        int[] generations;
+        CharSequence[] errors;
+        ValidateAll[] runOf;
+        ValidateAll[] runs;
+        synchronized (mLock) {
+            mBatchScheduled = false;
+            count = mPendingCount;
+            fields = Arrays.copyOf(mPendingFields, count);
+            generations = Arrays.copyOf(mPendingGenerations, count);
+            errors = Arrays.copyOf(mPendingErrors, count);
+            runOf = Arrays.copyOf(mPendingRunOf, count);
+            Arrays.fill(mPendingErrors, 0, count, null);
+            Arrays.fill(mPendingRunOf, 0, count, null);
+            mPendingCount = 0;
+            runs = mPendingRuns.toArray(new ValidateAll[mPendingRuns.size()]);
+            mPendingRuns.clear();
+        }
+        for (int i = 0; i < count; i++) {
+            // A stale result is dropped, and neither shown nor counted for its run.
+            if (generations[i] == mGenerations[fields[i]]) {
+                mStore.setError(fields[i], errors[i]);
+                if (errors[i] != null && runOf[i] != null) {
+                    runOf[i].mErrors++;
+                }
+            }
+        }
+        for (ValidateAll run : runs) {
+            if (run.mListener != null && run.mReleaseCount == mReleaseCount) {
+                run.mListener.onValidated(this, run.mErrors);
+            }
+        }
+    }
+
+    private final class FieldTask implements Runnable {
+        private final int mField;
+
+        FieldTask(int field) {
+            mField = field;
+        }
+
+        @Override
+        public void run() {
+            final FieldRule rule = mRules[mField];
+            final FormSnapshot snapshot = snapshot();
+            final int generation = mGenerations[mField];
+            mExecutor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    deliver(mField, generation, rule.validate(snapshot, mField), null);
+                }
+            });
+        }
+    }
+
+    private static final class ValidateAll {
+        private final OnValidatedListener mListener;
+        private final AtomicInteger mRemaining;
+        private final int mReleaseCount;
+        /** Errors applied to the store; only touched on the UI thread. */
+        private int mErrors;
+
+        ValidateAll(OnValidatedListener listener, int chunks, int releaseCount) {
+            mListener = listener;
+            mRemaining = new AtomicInteger(chunks);
+            mReleaseCount = releaseCount;
+        }
+    }
+
+    private final class ValidateChunk implements Runnable {
+        private final ValidateAll mRun;
+        private final FormSnapshot mSnapshot;
+        private final int[] mFields;
+        private final FieldRule[] mRules;
+        private final int[] mGenerations;
+        private final int mStart;
+        private final int mEnd;
+
+        ValidateChunk(ValidateAll run, FormSnapshot snapshot, int[] fields, FieldRule[] rules,
+                      int[] generations, int start, int end) {
+            mRun = run;
+            mSnapshot = snapshot;
+            mFields = fields;
+            mRules = rules;
+            mGenerations = generations;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        public void run() {
+            for (int i = mStart; i < mEnd; i++) {
+                int field = mFields[i];
+                deliver(field, mGenerations[i], mRules[i].validate(mSnapshot, field), mRun);
+            }
+            if (mRun.mRemaining.decrementAndGet() == 0) {
+                synchronized (mLock) {
+                    mPendingRuns.add(mRun);
+                    scheduleBatch();
+                }
+            }
+        }
+    }
+
+    private interface FrameSource {
+        void postFrame();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private final class ChoreographerFrameSource implements FrameSource,
+            Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        @Override
+        public void postFrame() {
+            mChoreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            applyBatch();
+        }
+    }
+
+    private final class HandlerFrameSource implements FrameSource, Runnable {
+
+        @Override
+        public void postFrame() {
+            mHandler.postDelayed(this, FRAME_DELAY);
+        }
+
+        @Override
+        public void run() {
+            applyBatch();
+        }
+    }
+}
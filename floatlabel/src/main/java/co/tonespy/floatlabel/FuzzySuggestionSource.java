@@ -0,0 +1,318 @@
+package co.tonespy.floatlabel;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Typo-tolerant {@link SuggestionSource} that ranks values by subsequence scoring, so "nwyrk"
+ * finds "New York" and a single mistyped character still matches.
+ *
+ * <p>Query characters must appear in order in the value. Matches at word starts, right
+ * after the previous match, and at the very start score higher, and long values pay a small
+ * length penalty. From four query characters on, up to {@link #setMaxTypos max typos} query
+ * characters may be missing from the value, each at a penalty. Install it on a field with
+ * {@link FloatLabelAutoCompleteTextView#setSuggestionSource}.
+ *
+ * <p>Every query scans all values, so it stays cheap even for 100k values:
+ * <ul>
+ * <li>keys are packed in one array with a 64-bit character-presence mask each, and values
+ * missing too many query characters are rejected from the mask alone;</li>
+ * <li>scoring stops as soon as a value can no longer beat the current K-th best;</li>
+ * <li>the best K are kept in a primitive heap;</li>
+ * <li>all buffers are allocated once per thread.</li>
+ * </ul>
+ * Queries are meant to run off the main thread, e.g. through {@link SuggestionAdapter}.
+ */
+public class FuzzySuggestionSource implements SuggestionSource {
+
+    public static final int DEFAULT_MAX_TYPOS = 1;
+
+    private static final int MIN_LENGTH_FOR_TYPOS = 4;
+
+    private static final int SCORE_MATCH = 1;
+    private static final int SCORE_WORD_START = 2;
+    private static final int SCORE_CONSECUTIVE = 3;
+    private static final int SCORE_FIRST_CHAR = 4;
+    private static final int PENALTY_TYPO = 3;
+    /** Unmatched value characters cost one point per this many. */
+    private static final int LENGTH_PENALTY_DIVISOR = 8;
+
+    private static final int MAX_CHAR_SCORE = SCORE_MATCH + SCORE_WORD_START + SCORE_CONSECUTIVE;
+
+    private final PackedStringStore mValues;
+    private final PackedStringStore mKeys;
+    private final char[] mKeyChars;
+    private final long[] mMasks;
+
+    private volatile int mMaxTypos = DEFAULT_MAX_TYPOS;
+
+    private final ThreadLocal<Scratch> mScratch = new ThreadLocal<Scratch>() {
+
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    public FuzzySuggestionSource(Collection<String> values) {
+        this(PackedStringStore.of(values));
+    }
+
+    public FuzzySuggestionSource(PackedStringStore values) {
+        int count = values.size();
+        mValues = values;
+        PackedStringStore.Builder keys = new PackedStringStore.Builder(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(SuggestionIndex.normalize(values.get(i)));
+        }
+        mKeys = keys.build();
+        mKeyChars = mKeys.chars();
+        mMasks = new long[count];
+        for (int i = 0; i < count; i++) {
+            mMasks[i] = mask(mKeyChars, mKeys.start(i), mKeys.end(i));
+        }
+    }
+
+    /**
+     * Number of query characters that may be missing from a value; only applies to queries
+     * of at least four characters.
+     */
+    public void setMaxTypos(int maxTypos) {
+        mMaxTypos = maxTypos;
+    }
+
+    public int getMaxTypos() {
+        return mMaxTypos;
+    }
+
+    @Override
+    public void query(CharSequence constraint, int limit, List<String> out) {
+        if (limit <= 0 || constraint == null) {
+            return;
+        }
+        String normalized = SuggestionIndex.normalize(constraint);
+        int queryLength = normalized.length();
+        if (queryLength == 0) {
+            return;
+        }
+        Scratch scratch = mScratch.get();
+        char[] query = scratch.query(normalized);
+        long queryMask = mask(query, 0, queryLength);
+        int maxTypos = queryLength >= MIN_LENGTH_FOR_TYPOS ? mMaxTypos : 0;
+        int bestPossible = queryLength * MAX_CHAR_SCORE + SCORE_FIRST_CHAR;
+
+        Heap heap = scratch.heap(limit);
+        for (int i = 0, count = mMasks.length; i < count; i++) {
+            if (Long.bitCount(queryMask & ~mMasks[i]) > maxTypos) {
+                continue;
+            }
+            int start = mKeys.start(i);
+            int end = mKeys.end(i);
+            int threshold = heap.isFull() ? heap.minScore() : Integer.MIN_VALUE;
+            if (bestPossible - lengthPenalty(end - start, queryLength) <= threshold) {
+                continue;
+            }
+            int score = score(start, end, query, queryLength, maxTypos, threshold);
+            if (score != Integer.MIN_VALUE) {
+                heap.offer(i, score);
+            }
+        }
+
+        for (int i = heap.drainDescending(), position = 0; position < i; position++) {
+            out.add(mValues.get(heap.mIds[position]));
+        }
+    }
+
+    /**
+     * Scores the key in {@code mKeyChars[start, end)} against {@code query}, or returns
+     * {@code Integer.MIN_VALUE} once it has more than {@code maxTypos} typos or can no longer
+     * score above {@code threshold}.
+     */
+    private int score(int start, int end, char[] query, int queryLength, int maxTypos,
+                      int threshold) {
+        char[] key = mKeyChars;
+        int score = -lengthPenalty(end - start, queryLength);
+        int typos = 0;
+        int position = start;
+        int lastMatch = -2;
+        for (int q = 0; q < queryLength; q++) {
+            char c = query[q];
+            int match = -1;
+            for (int k = position; k < end; k++) {
+                if (key[k] == c) {
+                    match = k;
+                    break;
+                }
+            }
+            if (match < 0) {
+                if (++typos > maxTypos) {
+                    return Integer.MIN_VALUE;
+                }
+                score -= PENALTY_TYPO;
+            } else {
+                score += SCORE_MATCH;
+                if (match == start) {
+                    score += SCORE_FIRST_CHAR + SCORE_WORD_START;
+                } else if (!Character.isLetterOrDigit(key[match - 1])) {
+                    score += SCORE_WORD_START;
+                }
+                if (match == lastMatch + 1) {
+                    score += SCORE_CONSECUTIVE;
+                }
+                lastMatch = match;
+                position = match + 1;
+            }
+            // Until something matched, a later character may still land on the first one.
+            int remaining = (queryLength - q - 1) * MAX_CHAR_SCORE
+                    + (lastMatch < 0 ? SCORE_FIRST_CHAR : 0);
+            if (score + remaining <= threshold) {
+                return Integer.MIN_VALUE;
+            }
+        }
+        return score;
+    }
+
+    private static int lengthPenalty(int keyLength, int queryLength) {
+        return Math.max(0, keyLength - queryLength) / LENGTH_PENALTY_DIVISOR;
+    }
+
+    /**
+     * One bit per letter and digit, with every other character sharing the remaining bits.
+     */
+    private static long mask(char[] chars, int start, int end) {
+        long mask = 0;
+        for (int i = start; i < end; i++) {
+            mask |= 1L << bit(chars[i]);
+        }
+        return mask;
+    }
+
+    private static int bit(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + c - '0';
+        }
+        return 36 + c % 28;
+    }
+
+    private static final class Scratch {
+        private char[] mQuery = new char[32];
+        private final Heap mHeap = new Heap();
+
+        char[] query(String normalized) {
+            int length = normalized.length();
+            if (mQuery.length < length) {
+                mQuery = new char[length];
+            }
+            normalized.getChars(0, length, mQuery, 0);
+            return mQuery;
+        }
+
+        Heap heap(int capacity) {
+            mHeap.reset(capacity);
+            return mHeap;
+        }
+    }
+
+    /**
+     * Min-heap of (score, value index) pairs holding the best {@code capacity} seen so far.
+     * Earlier values win ties, keeping results in input order among equals.
+     */
+    private static final class Heap {
+        int[] mIds = new int[0];
+        int[] mScores = new int[0];
+        private int mCapacity;
+        private int mSize;
+
+        void reset(int capacity) {
+            if (mIds.length < capacity) {
+                mIds = new int[capacity];
+                mScores = new int[capacity];
+            }
+            mCapacity = capacity;
+            mSize = 0;
+        }
+
+        boolean isFull() {
+            return mSize == mCapacity;
+        }
+
+        int minScore() {
+            return mScores[0];
+        }
+
+        void offer(int id, int score) {
+            if (mSize < mCapacity) {
+                int i = mSize++;
+                mIds[i] = id;
+                mScores[i] = score;
+                siftUp(i);
+            } else if (score > mScores[0]) {
+                mIds[0] = id;
+                mScores[0] = score;
+                siftDown(0, mSize);
+            }
+        }
+
+        /**
+         * Sorts the heap's contents best first in place and returns how many there are.
+         */
+        int drainDescending() {
+            int size = mSize;
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            mSize = 0;
+            return size;
+        }
+
+        /**
+         * Whether entry {@code a} ranks below entry {@code b}.
+         */
+        private boolean less(int a, int b) {
+            return mScores[a] < mScores[b] || (mScores[a] == mScores[b] && mIds[a] > mIds[b]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int size) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) {
+                    smallest = left;
+                }
+                if (right < size && less(right, smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = mIds[a];
+            mIds[a] = mIds[b];
+            mIds[b] = id;
+            int score = mScores[a];
+            mScores[a] = mScores[b];
+            mScores[b] = score;
+        }
+    }
+}
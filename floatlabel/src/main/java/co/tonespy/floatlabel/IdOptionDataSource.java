@@ -0,0 +1,102 @@
+package co.tonespy.floatlabel;
+
+import java.util.List;
+
+/**
+ * {@link OptionDataSource} whose options carry primitive {@code long} ids, e.g. database row
+ * ids. Ids and positions map both ways in constant time without boxing: positions to ids
+ * through the id array, ids to positions through an open-addressing hash table. Labels come
+ * from a second data source and are only loaded when shown.
+ */
+public class IdOptionDataSource implements OptionDataSource {
+
+    /**
+     * Id reported when no option, or the placeholder, is selected. No option may use it as
+     * its id.
+     */
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    private final long[] mIds;
+    private final OptionDataSource mLabels;
+
+    private final long[] mTableKeys;
+    /** Position + 1 of the key in the same slot, 0 for an empty slot. */
+    private final int[] mTablePositions;
+    private final int mTableMask;
+
+    /**
+     * @param ids    id of every option, by position; if an id repeats, its first position
+     *               wins
+     * @param labels labels of the options, by the same positions
+     * @throws IllegalArgumentException if an id is {@link #NO_ID}
+     */
+    public IdOptionDataSource(long[] ids, OptionDataSource labels) {
+        mIds = ids;
+        mLabels = labels;
+
+        int capacity = Integer.highestOneBit(Math.max(ids.length, 1) * 2 - 1) << 1;
+        mTableKeys = new long[capacity];
+        mTablePositions = new int[capacity];
+        mTableMask = capacity - 1;
+        for (int position = 0; position < ids.length; position++) {
+            if (ids[position] == NO_ID) {
+                throw new IllegalArgumentException("Option " + position + " has id NO_ID");
+            }
+            int slot = slot(ids[position]);
+            while (mTablePositions[slot] != 0 && mTableKeys[slot] != ids[position]) {
+                slot = (slot + 1) & mTableMask;
+            }
+            if (mTablePositions[slot] == 0) {
+                mTableKeys[slot] = ids[position];
+                mTablePositions[slot] = position + 1;
+            }
+        }
+    }
+
+    /**
+     * Options with the given ids and labels.
+     *
+     * @throws IllegalArgumentException if an id is {@link #NO_ID}
+     */
+    public IdOptionDataSource(long[] ids, PackedStringStore labels) {
+        this(ids, new PackedOptionDataSource(labels));
+    }
+
+    public long getId(int position) {
+        return position >= 0 && position < mIds.length ? mIds[position] : NO_ID;
+    }
+
+    /**
+     * Position of the option with {@code id}, or -1 if there is none.
+     */
+    public int getPosition(long id) {
+        int slot = slot(id);
+        while (mTablePositions[slot] != 0) {
+            if (mTableKeys[slot] == id) {
+                return mTablePositions[slot] - 1;
+            }
+            slot = (slot + 1) & mTableMask;
+        }
+        return -1;
+    }
+
+    @Override
+    public int getCount() {
+        return mIds.length;
+    }
+
+    @Override
+    public void loadOptions(int start, int count, List<String> out) {
+        mLabels.loadOptions(start, count, out);
+    }
+
+    @Override
+    public int search(CharSequence query, int[] out) {
+        return mLabels.search(query, out);
+    }
+
+    private int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mTableMask;
+    }
+}
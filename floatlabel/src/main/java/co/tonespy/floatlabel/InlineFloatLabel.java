@@ -0,0 +1,142 @@
+package co.tonespy.floatlabel;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.TypedValue;
+import android.view.View;
+import android.widget.TextView;
+
+/**
+ * {@link FloatLabelController} that draws the label straight onto the canvas of its host
+ * TextView instead of using a separate view. The label text is laid out once and the cached
+ * layout is redrawn with the current offset, alpha and color.
+ */
+class InlineFloatLabel extends FloatLabelController {
+
+    private final TextView mHost;
+    private final TextPaint mPaint;
+
+    private CharSequence mText;
+    private Layout mLayout;
+    private int mReservedHeight;
+
+    InlineFloatLabel(TextView host) {
+        mHost = host;
+        mPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.density = host.getResources().getDisplayMetrics().density;
+        mPaint.setFakeBoldText(true);
+        setLabelTextSize(TypedValue.COMPLEX_UNIT_SP, FloatLabelStyle.HINT_DEFAULT_SIZE);
+    }
+
+    /**
+     * Applies a resolved style to both the host and the label.
+     */
+    @Override
+    public void applyStyle(FloatLabelStyle style) {
+        mHost.setTextColor(style.getEditColor());
+        mHost.setHintTextColor(style.getHintColor());
+        if (style.getTypeface() != null) {
+            mHost.setTypeface(style.getTypeface());
+        }
+        if (style.hasInputType()) {
+            mHost.setInputType(style.getInputType());
+        }
+        mHost.setSingleLine(style.isSingleLine());
+        super.applyStyle(style);
+    }
+
+    /**
+     * Height kept free above the text for the label, whether it is currently shown or not,
+     * so that showing it never causes a layout jump.
+     */
+    int getReservedHeight() {
+        return mReservedHeight;
+    }
+
+    /**
+     * The label follows the host's hint, which is read again at draw time.
+     */
+    @Override
+    public void setLabelText(CharSequence text) {
+        if (text != null) {
+            mHost.setHint(text);
+        }
+    }
+
+    @Override
+    public void setLabelTextSize(int unit, float size) {
+        float rawSize = TypedValue.applyDimension(unit, size,
+                mHost.getResources().getDisplayMetrics());
+        if (mPaint.getTextSize() != rawSize) {
+            mPaint.setTextSize(rawSize);
+            onMetricsChanged();
+        }
+    }
+
+    @Override
+    public void setLabelTypeface(Typeface tf) {
+        if (mPaint.getTypeface() != tf) {
+            mPaint.setTypeface(tf);
+            onMetricsChanged();
+        }
+    }
+
+    @Override
+    protected View getHostView() {
+        return mHost;
+    }
+
+    @Override
+    protected void onLabelProgressChanged(float progress) {
+        invalidateLabel();
+    }
+
+    @Override
+    protected void onLabelColorChanged(int color) {
+        invalidateLabel();
+    }
+
+    void draw(Canvas canvas, int left, int top) {
+        float progress = getLabelProgress();
+        if (progress <= 0f) {
+            return;
+        }
+        CharSequence text = mHost.getHint();
+        if (text == null) {
+            return;
+        }
+        if (mLayout == null || text != mText) {
+            mText = text;
+            int width = (int) Math.ceil(Layout.getDesiredWidth(text, mPaint));
+            mLayout = new StaticLayout(text, mPaint, width, Layout.Alignment.ALIGN_NORMAL,
+                    1f, 0f, false);
+        }
+        int color = getLabelColor();
+        mPaint.setColor(color);
+        mPaint.setAlpha((int) (Color.alpha(color) * progress));
+
+        int saveCount = canvas.save();
+        canvas.translate(left, top + LABEL_TRANSLATION * (1f - progress));
+        mLayout.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void onMetricsChanged() {
+        mLayout = null;
+        mReservedHeight = mPaint.getFontMetricsInt(null);
+        mHost.requestLayout();
+        mHost.invalidate();
+    }
+
+    private void invalidateLabel() {
+        int left = mHost.getScrollX();
+        int top = mHost.getScrollY() + mHost.getPaddingTop();
+        mHost.invalidate(left, top, left + mHost.getWidth(),
+                top + mReservedHeight + LABEL_TRANSLATION);
+    }
+}
@@ -0,0 +1,79 @@
+package co.tonespy.floatlabel;
+
+/**
+ * Compiled input mask such as {@code "(###) ###-####"} or {@code "#### #### #### ####"}.
+ * In the pattern, {@code #} stands for a digit, {@code A} for a letter and {@code *} for a
+ * letter or digit; every other character is a literal inserted by the mask. Apply it to a
+ * field with {@link MaskFormatter}.
+ */
+public final class InputMask {
+
+    public static final char SLOT_DIGIT = '#';
+    public static final char SLOT_LETTER = 'A';
+    public static final char SLOT_LETTER_OR_DIGIT = '*';
+
+    private final String mPattern;
+    private final boolean[] mSlots;
+    private final int mSlotCount;
+
+    public InputMask(String pattern) {
+        mPattern = pattern;
+        mSlots = new boolean[pattern.length()];
+        int slotCount = 0;
+        for (int i = 0; i < mSlots.length; i++) {
+            char c = pattern.charAt(i);
+            mSlots[i] = c == SLOT_DIGIT || c == SLOT_LETTER || c == SLOT_LETTER_OR_DIGIT;
+            if (mSlots[i]) {
+                slotCount++;
+            }
+        }
+        mSlotCount = slotCount;
+    }
+
+    public String getPattern() {
+        return mPattern;
+    }
+
+    public int length() {
+        return mSlots.length;
+    }
+
+    /**
+     * Number of characters the user fills in.
+     */
+    public int getSlotCount() {
+        return mSlotCount;
+    }
+
+    public boolean isSlot(int index) {
+        return mSlots[index];
+    }
+
+    /**
+     * Whether {@code c} may fill the slot at {@code index}.
+     */
+    public boolean accepts(int index, char c) {
+        switch (mPattern.charAt(index)) {
+            case SLOT_DIGIT:
+                return c >= '0' && c <= '9';
+            case SLOT_LETTER:
+                return Character.isLetter(c);
+            case SLOT_LETTER_OR_DIGIT:
+                return Character.isLetterOrDigit(c);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Appends the user-entered characters of {@code formatted}, without the literals, to
+     * {@code out}.
+     */
+    public void unmask(CharSequence formatted, StringBuilder out) {
+        for (int i = 0, count = Math.min(formatted.length(), mSlots.length); i < count; i++) {
+            if (mSlots[i]) {
+                out.append(formatted.charAt(i));
+            }
+        }
+    }
+}
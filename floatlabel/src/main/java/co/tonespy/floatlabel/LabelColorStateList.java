@@ -0,0 +1,39 @@
+package co.tonespy.floatlabel;
+
+import android.content.res.ColorStateList;
+
+/**
+ * Single-color, stateless ColorStateList whose color can be changed in place. Handing the
+ * same instance back to {@code TextView.setTextColor} on every animation frame updates the
+ * text color without allocating a new list each time.
+ */
+class LabelColorStateList extends ColorStateList {
+
+    private static final int[][] STATES = new int[][] { new int[0] };
+
+    private int mColor;
+
+    LabelColorStateList(int color) {
+        super(STATES, new int[] { color });
+        mColor = color;
+    }
+
+    void setColor(int color) {
+        mColor = color;
+    }
+
+    @Override
+    public int getColorForState(int[] stateSet, int defaultColor) {
+        return mColor;
+    }
+
+    @Override
+    public int getDefaultColor() {
+        return mColor;
+    }
+
+    @Override
+    public boolean isStateful() {
+        return false;
+    }
+}
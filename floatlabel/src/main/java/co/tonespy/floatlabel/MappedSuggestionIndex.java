@@ -0,0 +1,325 @@
+package co.tonespy.floatlabel;
+
+import android.content.res.AssetFileDescriptor;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SuggestionSource} that queries a prebuilt binary index through a memory-mapped
+ * file. Opening maps the file and checks its header and offset tables, without reading
+ * any strings, so a large catalogue is usable at once and only the string pages a query
+ * touches are ever read. Queries behave like {@link SuggestionIndex}.
+ *
+ * <p>Indexes are written by {@link Builder}, typically at build time from a plain text
+ * list. The format, all big-endian:
+ * <pre>
+ * int magic 'FLSI', int version, int count N, int word start count W
+ * int[N + 1] key offsets, in chars, of the normalised keys in sorted order
+ * int[N + 1] value offsets, in chars, of the values in the same order
+ * int[2 * W] (value index, char offset) word starts, sorted by key suffix
+ * char[] keys, char[] values
+ * </pre>
+ * An index shipped as an asset must be stored uncompressed ({@code aaptOptions.noCompress})
+ * to be opened with {@link #open(AssetFileDescriptor)}.
+ */
+public final class MappedSuggestionIndex implements SuggestionSource {
+
+    private static final int MAGIC = 0x464C5349;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final int mCount;
+    private final int mWordStartCount;
+    private final IntBuffer mKeyOffsets;
+    private final IntBuffer mValueOffsets;
+    private final IntBuffer mWordStarts;
+    private final CharBuffer mKeys;
+    private final CharBuffer mValues;
+
+    private MappedSuggestionIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a suggestion index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported suggestion index version " + buffer.getInt(4));
+        }
+        mCount = buffer.getInt(8);
+        mWordStartCount = buffer.getInt(12);
+        if (mCount < 0 || mWordStartCount < 0) {
+            throw new IOException("Corrupt suggestion index");
+        }
+
+        int keyOffsets = HEADER_SIZE;
+        long valueOffsets = keyOffsets + 4L * (mCount + 1L);
+        long wordStarts = valueOffsets + 4L * (mCount + 1L);
+        long keys = wordStarts + 8L * mWordStartCount;
+        if (keys > buffer.capacity()) {
+            throw new IOException("Truncated suggestion index");
+        }
+        mKeyOffsets = region(buffer, keyOffsets).asIntBuffer();
+        mValueOffsets = region(buffer, (int) valueOffsets).asIntBuffer();
+        mWordStarts = region(buffer, (int) wordStarts).asIntBuffer();
+        int keyChars = checkOffsets(mKeyOffsets, mCount);
+        int valueChars = checkOffsets(mValueOffsets, mCount);
+        long values = keys + 2L * keyChars;
+        if (values + 2L * valueChars > buffer.capacity()) {
+            throw new IOException("Truncated suggestion index");
+        }
+        for (int i = 0; i < mWordStartCount; i++) {
+            int value = mWordStarts.get(2 * i);
+            int offset = mWordStarts.get(2 * i + 1);
+            if (value < 0 || value >= mCount || offset < 0
+                    || offset >= mKeyOffsets.get(value + 1) - mKeyOffsets.get(value)) {
+                throw new IOException("Corrupt suggestion index");
+            }
+        }
+        mKeys = region(buffer, (int) keys).asCharBuffer();
+        mValues = region(buffer, (int) values).asCharBuffer();
+    }
+
+    /**
+     * Checks that {@code count + 1} offsets start at zero and never decrease, so every
+     * string lies inside its char region, and returns the last one, the region's length.
+     */
+    private static int checkOffsets(IntBuffer offsets, int count) throws IOException {
+        int previous = offsets.get(0);
+        if (previous != 0) {
+            throw new IOException("Corrupt suggestion index");
+        }
+        for (int i = 1; i <= count; i++) {
+            int offset = offsets.get(i);
+            if (offset < previous) {
+                throw new IOException("Corrupt suggestion index");
+            }
+            previous = offset;
+        }
+        return previous;
+    }
+
+    /**
+     * Maps the index in {@code file}.
+     */
+    public static MappedSuggestionIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new MappedSuggestionIndex(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Maps an index stored uncompressed in the application's assets, as returned by
+     * {@code AssetManager.openFd}.
+     */
+    public static MappedSuggestionIndex open(AssetFileDescriptor descriptor) throws IOException {
+        FileInputStream in = new FileInputStream(descriptor.getFileDescriptor());
+        try {
+            MappedByteBuffer buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+            return new MappedSuggestionIndex(buffer);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Number of values in the index.
+     */
+    public int size() {
+        return mCount;
+    }
+
+    @Override
+    public void query(CharSequence constraint, int limit, List<String> out) {
+        if (limit <= 0) {
+            return;
+        }
+        String query = constraint != null ? SuggestionIndex.normalize(constraint) : "";
+        int[] added = new int[limit];
+        int addedCount = 0;
+        for (int i = lowerBound(mCount, query, false); i < mCount && addedCount < limit; i++) {
+            if (comparePrefix(i, 0, query) != 0) {
+                break;
+            }
+            added[addedCount++] = i;
+            out.add(getValue(i));
+        }
+        if (addedCount == limit || query.length() == 0) {
+            return;
+        }
+        for (int i = lowerBound(mWordStartCount, query, true);
+             i < mWordStartCount && addedCount < limit; i++) {
+            int value = mWordStarts.get(2 * i);
+            if (comparePrefix(value, mWordStarts.get(2 * i + 1), query) != 0) {
+                break;
+            }
+            if (!contains(added, addedCount, value)) {
+                added[addedCount++] = value;
+                out.add(getValue(value));
+            }
+        }
+    }
+
+    private int lowerBound(int count, String query, boolean wordStarts) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = wordStarts
+                    ? comparePrefix(mWordStarts.get(2 * mid), mWordStarts.get(2 * mid + 1),
+                            query)
+                    : comparePrefix(mid, 0, query);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int comparePrefix(int value, int offset, String query) {
+        int start = mKeyOffsets.get(value) + offset;
+        int suffixLength = mKeyOffsets.get(value + 1) - start;
+        int length = Math.min(suffixLength, query.length());
+        for (int i = 0; i < length; i++) {
+            int diff = mKeys.get(start + i) - query.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return suffixLength >= query.length() ? 0 : -1;
+    }
+
+    private String getValue(int value) {
+        int start = mValueOffsets.get(value);
+        char[] chars = new char[mValueOffsets.get(value + 1) - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = mValues.get(start + i);
+        }
+        return new String(chars);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ByteBuffer region(ByteBuffer buffer, int position) {
+        ByteBuffer region = buffer.duplicate();
+        region.position(position);
+        return region.slice();
+    }
+
+    /**
+     * Converts a list of values into the binary index format.
+     */
+    public static final class Builder {
+        private final List<String> mValues = new ArrayList<String>();
+
+        public Builder add(String value) {
+            mValues.add(value);
+            return this;
+        }
+
+        /**
+         * Adds every non-blank line of {@code reader}, trimmed.
+         */
+        public Builder addLines(Reader reader) throws IOException {
+            BufferedReader lines = reader instanceof BufferedReader
+                    ? (BufferedReader) reader
+                    : new BufferedReader(reader);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                line = line.trim();
+                if (line.length() > 0) {
+                    mValues.add(line);
+                }
+            }
+            return this;
+        }
+
+        public void writeTo(File file) throws IOException {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                writeTo(out);
+            } finally {
+                out.close();
+            }
+        }
+
+        public void writeTo(OutputStream stream) throws IOException {
+            SuggestionIndex index = new SuggestionIndex(mValues);
+            PackedStringStore values = index.values();
+            PackedStringStore keys = index.keys();
+            long[] sorted = index.prefixes();
+            long[] wordStarts = index.wordStarts();
+            int count = sorted.length;
+
+            // Values are written in key order, so word starts refer to sorted positions.
+            int[] positions = new int[values.size()];
+            for (int i = 0; i < count; i++) {
+                positions[SuggestionIndex.value(sorted[i])] = i;
+            }
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(wordStarts.length);
+            writeOffsets(out, keys, sorted);
+            writeOffsets(out, values, sorted);
+            for (long entry : wordStarts) {
+                out.writeInt(positions[SuggestionIndex.value(entry)]);
+                out.writeInt(SuggestionIndex.offset(entry));
+            }
+            writeChars(out, keys, sorted);
+            writeChars(out, values, sorted);
+            out.flush();
+        }
+
+        private static void writeOffsets(DataOutputStream out, PackedStringStore store,
+                                         long[] order) throws IOException {
+            int offset = 0;
+            out.writeInt(offset);
+            for (long entry : order) {
+                offset += store.length(SuggestionIndex.value(entry));
+                out.writeInt(offset);
+            }
+        }
+
+        private static void writeChars(DataOutputStream out, PackedStringStore store,
+                                       long[] order) throws IOException {
+            char[] chars = store.chars();
+            for (long entry : order) {
+                int value = SuggestionIndex.value(entry);
+                for (int i = store.start(value), end = store.end(value); i < end; i++) {
+                    out.writeChar(chars[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package co.tonespy.floatlabel;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+
+/**
+ * TextWatcher that keeps a field's text in the shape of an {@link InputMask} by editing the
+ * Editable in place: literals are inserted ahead of characters that fill the slot after
+ * them, characters a slot rejects and characters past the end of the mask are removed, and
+ * nothing else is touched. Formatting starts at the first changed character, as everything
+ * before it is already formatted, and allocates nothing. The cursor is a span of the
+ * Editable, so it moves along with the edits instead of jumping to the end as with
+ * {@code setText}. Literals left dangling at the end by a deletion are dropped, and deleting
+ * a literal inside the text also deletes the character before it, so backspace never gets
+ * stuck behind one.
+ *
+ * <p>Register it before the field's other watchers: its own edits re-enter every watcher
+ * with text that is already formatted, but watchers ahead of it also see each edit before
+ * it is formatted, e.g. a character the mask is about to reject.
+ */
+public class MaskFormatter implements TextWatcher {
+
+    private final InputMask mMask;
+    private final String mPattern;
+    private boolean mFormatting;
+    private int mChangeStart;
+    private boolean mDeletedLiteral;
+
+    public MaskFormatter(InputMask mask) {
+        mMask = mask;
+        mPattern = mask.getPattern();
+    }
+
+    public InputMask getMask() {
+        return mMask;
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (!mFormatting) {
+            mChangeStart = start;
+            mDeletedLiteral = before == 1 && count == 0 && start < mMask.length()
+                    && !mMask.isSlot(start);
+        }
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        if (mFormatting) {
+            return;
+        }
+        mFormatting = true;
+        try {
+            format(s, mChangeStart, mDeletedLiteral);
+        } finally {
+            mFormatting = false;
+        }
+    }
+
+    /**
+     * Formats all of {@code s}, e.g. text the field had before the mask was set.
+     */
+    public void format(Editable s) {
+        if (mFormatting) {
+            return;
+        }
+        mFormatting = true;
+        try {
+            format(s, 0, false);
+        } finally {
+            mFormatting = false;
+        }
+    }
+
+    private void format(Editable s, int start, boolean deletedLiteral) {
+        if (deletedLiteral) {
+            // Formatting would put the literal straight back, so drop the character it
+            // follows along with any literals in between.
+            int slot = Math.min(start, s.length()) - 1;
+            while (slot >= 0 && !mMask.isSlot(slot)) {
+                slot--;
+            }
+            if (slot >= 0) {
+                s.delete(slot, start);
+                start = slot;
+            }
+        }
+        int maskLength = mMask.length();
+        int i = Math.min(Math.max(start, 0), Math.min(s.length(), maskLength));
+        while (i < s.length() && i < maskLength) {
+            char c = s.charAt(i);
+            if (!mMask.isSlot(i)) {
+                if (c == mPattern.charAt(i)) {
+                    i++;
+                } else if (fitsAfterLiteral(i, c)) {
+                    s.insert(i, mPattern, i, i + 1);
+                    i++;
+                } else {
+                    s.delete(i, i + 1);
+                }
+            } else if (mMask.accepts(i, c)) {
+                i++;
+            } else {
+                s.delete(i, i + 1);
+            }
+        }
+        if (s.length() > maskLength) {
+            s.delete(maskLength, s.length());
+        }
+        int end = s.length();
+        while (end > 0 && !mMask.isSlot(end - 1)) {
+            end--;
+        }
+        if (end < s.length()) {
+            s.delete(end, s.length());
+        }
+    }
+
+    /**
+     * Whether {@code c}, found where the literal at {@code index} belongs, matches one of the
+     * literals following it or fills the slot after them. Literals are only inserted for
+     * such characters, so a rejected character never leaves a lone literal behind.
+     */
+    private boolean fitsAfterLiteral(int index, char c) {
+        int i = index + 1;
+        while (i < mMask.length() && !mMask.isSlot(i)) {
+            if (c == mPattern.charAt(i)) {
+                return true;
+            }
+            i++;
+        }
+        return i < mMask.length() && mMask.accepts(i, c);
+    }
+}
@@ -0,0 +1,27 @@
+package co.tonespy.floatlabel;
+
+import java.util.List;
+
+/**
+ * Options of a searchable {@link FloatLabelSpinnerView}, loaded a page at a time instead of
+ * held in an adapter up front. Position 0 is conventionally the "nothing selected" prompt.
+ */
+public interface OptionDataSource {
+
+    /**
+     * Total number of options. Called on the UI thread, so must be cheap.
+     */
+    int getCount();
+
+    /**
+     * Appends the labels of the options {@code start} to {@code start + count - 1} to
+     * {@code out}. Called on a background thread.
+     */
+    void loadOptions(int start, int count, List<String> out);
+
+    /**
+     * Stores the positions of at most {@code out.length} options matching {@code query} in
+     * {@code out}, best first, and returns how many there are. Called on a background thread.
+     */
+    int search(CharSequence query, int[] out);
+}
@@ -0,0 +1,192 @@
+package co.tonespy.floatlabel;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.BaseAdapter;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Option picker of a searchable {@link FloatLabelSpinnerView}: a search box over a lazily
+ * paged list of every option. Typing searches the {@link OptionDataSource} on the shared
+ * background executor once the text has been stable for a moment; only the latest search is
+ * shown.
+ */
+class OptionSearchDialog extends Dialog implements TextWatcher, AdapterView.OnItemClickListener {
+
+    interface OnOptionSelectedListener {
+        void onOptionSelected(int position);
+    }
+
+    private static final int SEARCH_LIMIT = 100;
+    private static final long SEARCH_DELAY = 150;
+
+    private final OptionDataSource mSource;
+    private final OnOptionSelectedListener mListener;
+    private final PagedOptionAdapter mOptions;
+    private final ResultAdapter mResults;
+    private final ListView mList;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private String mQuery = "";
+
+    private final Runnable mSearch = new Runnable() {
+
+        @Override
+        public void run() {
+            search(mGeneration.get(), mQuery);
+        }
+    };
+
+    OptionSearchDialog(Context context, OptionDataSource source, CharSequence title,
+                       OnOptionSelectedListener listener) {
+        super(context);
+        mSource = source;
+        mListener = listener;
+        mOptions = new PagedOptionAdapter(context, source, android.R.layout.simple_list_item_1);
+        mResults = new ResultAdapter(LayoutInflater.from(context));
+
+        EditText search = new EditText(context);
+        search.setSingleLine(true);
+        search.setHint(R.string.float_label_search_hint);
+        search.addTextChangedListener(this);
+
+        mList = new ListView(context);
+        mList.setAdapter(mOptions);
+        mList.setOnItemClickListener(this);
+
+        LinearLayout content = new LinearLayout(context);
+        content.setOrientation(LinearLayout.VERTICAL);
+        content.addView(search, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        content.addView(mList, new LinearLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        setTitle(title);
+        setContentView(content);
+        setOnDismissListener(new DialogInterface.OnDismissListener() {
+
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+                mGeneration.incrementAndGet();
+                mHandler.removeCallbacks(mSearch);
+            }
+        });
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        mQuery = s.toString().trim();
+        mGeneration.incrementAndGet();
+        mHandler.removeCallbacks(mSearch);
+        if (mQuery.length() == 0) {
+            mList.setAdapter(mOptions);
+        } else {
+            mHandler.postDelayed(mSearch, SEARCH_DELAY);
+        }
+    }
+
+    @Override
+    public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+        if (mList.getAdapter() == mResults) {
+            position = mResults.getOptionPosition(position);
+        }
+        mListener.onOptionSelected(position);
+        dismiss();
+    }
+
+    private void search(final int generation, final String query) {
+        FloatLabelExecutors.getBackgroundExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                if (generation != mGeneration.get()) {
+                    return;
+                }
+                final int[] positions = new int[SEARCH_LIMIT];
+                final int count = mSource.search(query, positions);
+                final List<String> labels = new ArrayList<String>(count);
+                for (int i = 0; i < count && generation == mGeneration.get(); i++) {
+                    mSource.loadOptions(positions[i], 1, labels);
+                }
+                mHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration.get()) {
+                            mResults.setResults(positions, labels);
+                            mList.setAdapter(mResults);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static final class ResultAdapter extends BaseAdapter {
+        private final LayoutInflater mInflater;
+        private int[] mPositions = new int[0];
+        private List<String> mLabels = new ArrayList<String>();
+
+        ResultAdapter(LayoutInflater inflater) {
+            mInflater = inflater;
+        }
+
+        void setResults(int[] positions, List<String> labels) {
+            mPositions = positions;
+            mLabels = labels;
+            notifyDataSetChanged();
+        }
+
+        int getOptionPosition(int position) {
+            return mPositions[position];
+        }
+
+        @Override
+        public int getCount() {
+            return mLabels.size();
+        }
+
+        @Override
+        public String getItem(int position) {
+            return mLabels.get(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return mPositions[position];
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            TextView view = (TextView) (convertView != null
+                    ? convertView
+                    : mInflater.inflate(android.R.layout.simple_list_item_1, parent, false));
+            view.setText(getItem(position));
+            return view;
+        }
+    }
+}
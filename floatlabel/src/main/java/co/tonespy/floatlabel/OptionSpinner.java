@@ -0,0 +1,40 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.Spinner;
+
+/**
+ * Spinner used by {@link FloatLabelSpinnerView}. It behaves like a stock Spinner unless a
+ * click handler is set, in which case that handler opens the option list instead of the
+ * spinner's own popup.
+ */
+public class OptionSpinner extends Spinner {
+
+    private Runnable mClickHandler;
+
+    public OptionSpinner(Context context) {
+        super(context);
+    }
+
+    public OptionSpinner(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public OptionSpinner(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    void setClickHandler(Runnable clickHandler) {
+        mClickHandler = clickHandler;
+    }
+
+    @Override
+    public boolean performClick() {
+        if (mClickHandler == null) {
+            return super.performClick();
+        }
+        mClickHandler.run();
+        return true;
+    }
+}
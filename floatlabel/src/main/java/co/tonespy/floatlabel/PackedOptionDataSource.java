@@ -0,0 +1,46 @@
+package co.tonespy.floatlabel;
+
+import java.util.List;
+
+/**
+ * {@link OptionDataSource} over an in-memory {@link PackedStringStore}. Searches go through
+ * a {@link SuggestionIndex}, built on the first search on a background thread.
+ */
+public class PackedOptionDataSource implements OptionDataSource {
+
+    private final PackedStringStore mOptions;
+    private SuggestionIndex mIndex;
+
+    public PackedOptionDataSource(PackedStringStore options) {
+        mOptions = options;
+    }
+
+    public PackedStringStore getOptions() {
+        return mOptions;
+    }
+
+    @Override
+    public int getCount() {
+        return mOptions.size();
+    }
+
+    @Override
+    public void loadOptions(int start, int count, List<String> out) {
+        for (int i = start, end = Math.min(start + count, mOptions.size()); i < end; i++) {
+            out.add(mOptions.get(i));
+        }
+    }
+
+    @Override
+    public int search(CharSequence query, int[] out) {
+        return getIndex().queryIndices(query, out.length, out);
+    }
+
+    private synchronized SuggestionIndex getIndex() {
+        if (mIndex == null) {
+            // Every position is an option of its own, even if its label repeats.
+            mIndex = new SuggestionIndex(mOptions, true);
+        }
+        return mIndex;
+    }
+}
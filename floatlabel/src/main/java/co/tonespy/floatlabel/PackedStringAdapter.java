@@ -0,0 +1,81 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+/**
+ * Spinner adapter over a {@link PackedStringStore}. Rows are bound straight from the packed
+ * chars, so no String is created for an entry unless {@link #getItem(int)} asks for it.
+ */
+public class PackedStringAdapter extends BaseAdapter {
+
+    private final LayoutInflater mInflater;
+    private final PackedStringStore mStore;
+    private final int mResource;
+    private int mDropDownResource;
+
+    public PackedStringAdapter(Context context, PackedStringStore store) {
+        this(context, store, android.R.layout.simple_spinner_item);
+        mDropDownResource = android.R.layout.simple_spinner_dropdown_item;
+    }
+
+    /**
+     * @param resource layout of a row, either a TextView or containing one with id
+     *                 {@code android.R.id.text1}
+     */
+    public PackedStringAdapter(Context context, PackedStringStore store, int resource) {
+        mInflater = LayoutInflater.from(context);
+        mStore = store;
+        mResource = resource;
+        mDropDownResource = resource;
+    }
+
+    public void setDropDownViewResource(int resource) {
+        mDropDownResource = resource;
+    }
+
+    public PackedStringStore getStore() {
+        return mStore;
+    }
+
+    @Override
+    public int getCount() {
+        return mStore.size();
+    }
+
+    @Override
+    public String getItem(int position) {
+        return mStore.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        return bindView(position, convertView, parent, mResource);
+    }
+
+    @Override
+    public View getDropDownView(int position, View convertView, ViewGroup parent) {
+        return bindView(position, convertView, parent, mDropDownResource);
+    }
+
+    private View bindView(int position, View convertView, ViewGroup parent, int resource) {
+        View view = convertView != null
+                ? convertView
+                : mInflater.inflate(resource, parent, false);
+        TextView text = view instanceof TextView
+                ? (TextView) view
+                : (TextView) view.findViewById(android.R.id.text1);
+        text.setText(mStore.chars(), mStore.start(position),
+                mStore.end(position) - mStore.start(position));
+        return view;
+    }
+}
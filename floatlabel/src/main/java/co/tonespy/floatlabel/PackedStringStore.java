@@ -0,0 +1,143 @@
+package co.tonespy.floatlabel;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable list of strings packed into one char array with an int offset table. Compared
+ * with a {@code List<String>} this drops the per-entry String and char[] headers and the
+ * list's references, and Strings are only created for the entries that are actually read,
+ * e.g. the rows on screen.
+ *
+ * <p>Use {@link PackedStringAdapter} to show a store in a spinner, and
+ * {@link SuggestionIndex#SuggestionIndex(PackedStringStore)} to search it from an
+ * autocomplete field.
+ */
+public final class PackedStringStore {
+
+    private final char[] mChars;
+    /** Start of every entry, followed by the end of the last one. */
+    private final int[] mOffsets;
+    private final int mSize;
+
+    private PackedStringStore(char[] chars, int[] offsets, int size) {
+        mChars = chars;
+        mOffsets = offsets;
+        mSize = size;
+    }
+
+    public static PackedStringStore of(Collection<? extends CharSequence> values) {
+        Builder builder = new Builder(values.size());
+        for (CharSequence value : values) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    public static PackedStringStore of(CharSequence... values) {
+        return of(Arrays.asList(values));
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int length(int index) {
+        checkIndex(index);
+        return mOffsets[index + 1] - mOffsets[index];
+    }
+
+    public char charAt(int index, int position) {
+        checkIndex(index);
+        return mChars[mOffsets[index] + position];
+    }
+
+    /**
+     * Creates the String for entry {@code index}.
+     */
+    public String get(int index) {
+        checkIndex(index);
+        return new String(mChars, mOffsets[index], mOffsets[index + 1] - mOffsets[index]);
+    }
+
+    /**
+     * Copies entry {@code index} into {@code dest} at {@code destPosition}.
+     */
+    public void getChars(int index, char[] dest, int destPosition) {
+        checkIndex(index);
+        System.arraycopy(mChars, mOffsets[index], dest, destPosition,
+                mOffsets[index + 1] - mOffsets[index]);
+    }
+
+    /**
+     * Backing array, for callers in this package that read entries in place.
+     */
+    char[] chars() {
+        return mChars;
+    }
+
+    int start(int index) {
+        return mOffsets[index];
+    }
+
+    int end(int index) {
+        return mOffsets[index + 1];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", size is " + mSize);
+        }
+    }
+
+    /**
+     * Appends entries to a growing buffer. The finished store is trimmed to size.
+     */
+    public static final class Builder {
+        private char[] mChars;
+        private int[] mOffsets;
+        private int mSize;
+        private int mLength;
+
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * @param expectedSize number of entries to allocate the offset table for
+         */
+        public Builder(int expectedSize) {
+            mOffsets = new int[Math.max(expectedSize, 1) + 1];
+            mChars = new char[Math.max(expectedSize, 1) * 16];
+        }
+
+        public Builder add(CharSequence value) {
+            int length = value.length();
+            if (mLength + length > mChars.length) {
+                mChars = Arrays.copyOf(mChars, Math.max(mChars.length * 2, mLength + length));
+            }
+            if (value instanceof String) {
+                ((String) value).getChars(0, length, mChars, mLength);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    mChars[mLength + i] = value.charAt(i);
+                }
+            }
+            mLength += length;
+            if (mSize + 2 > mOffsets.length) {
+                mOffsets = Arrays.copyOf(mOffsets, mOffsets.length * 2);
+            }
+            mOffsets[++mSize] = mLength;
+            return this;
+        }
+
+        public int size() {
+            return mSize;
+        }
+
+        public PackedStringStore build() {
+            return new PackedStringStore(Arrays.copyOf(mChars, mLength),
+                    Arrays.copyOf(mOffsets, mSize + 1), mSize);
+        }
+    }
+}
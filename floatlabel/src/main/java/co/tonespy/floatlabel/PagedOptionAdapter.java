@@ -0,0 +1,144 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Spinner adapter that loads the labels of an {@link OptionDataSource} a page at a time on
+ * the shared background executor. Only the pages around the rows actually shown are loaded
+ * and a bounded number of them is kept, so the option count does not affect memory or the
+ * time to open the list. Rows whose page is still loading are shown empty.
+ */
+public class PagedOptionAdapter extends BaseAdapter {
+
+    public static final int PAGE_SIZE = 100;
+
+    private static final int MAX_PAGES = 16;
+
+    private final LayoutInflater mInflater;
+    private final OptionDataSource mSource;
+    private final int mResource;
+    private int mDropDownResource;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<Integer, List<String>> mPages =
+            new LruCache<Integer, List<String>>(MAX_PAGES);
+    private final Set<Integer> mLoading = new HashSet<Integer>();
+
+    public PagedOptionAdapter(Context context, OptionDataSource source) {
+        this(context, source, android.R.layout.simple_spinner_item);
+        mDropDownResource = android.R.layout.simple_spinner_dropdown_item;
+    }
+
+    /**
+     * @param resource layout of a row, either a TextView or containing one with id
+     *                 {@code android.R.id.text1}
+     */
+    public PagedOptionAdapter(Context context, OptionDataSource source, int resource) {
+        mInflater = LayoutInflater.from(context);
+        mSource = source;
+        mResource = resource;
+        mDropDownResource = resource;
+    }
+
+    public void setDropDownViewResource(int resource) {
+        mDropDownResource = resource;
+    }
+
+    public OptionDataSource getDataSource() {
+        return mSource;
+    }
+
+    @Override
+    public int getCount() {
+        return mSource.getCount();
+    }
+
+    /**
+     * Returns the label at {@code position}, or null while its page is loading.
+     */
+    @Override
+    public String getItem(int position) {
+        int page = position / PAGE_SIZE;
+        List<String> options = mPages.get(page);
+        if (options == null) {
+            loadPage(page);
+            return null;
+        }
+        int index = position - page * PAGE_SIZE;
+        return index < options.size() ? options.get(index) : null;
+    }
+
+    /**
+     * Returns the option's id for an {@link IdOptionDataSource}, its position otherwise.
+     */
+    @Override
+    public long getItemId(int position) {
+        if (mSource instanceof IdOptionDataSource) {
+            return ((IdOptionDataSource) mSource).getId(position);
+        }
+        return position;
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        return bindView(position, convertView, parent, mResource);
+    }
+
+    @Override
+    public View getDropDownView(int position, View convertView, ViewGroup parent) {
+        return bindView(position, convertView, parent, mDropDownResource);
+    }
+
+    private View bindView(int position, View convertView, ViewGroup parent, int resource) {
+        View view = convertView != null
+                ? convertView
+                : mInflater.inflate(resource, parent, false);
+        TextView text = view instanceof TextView
+                ? (TextView) view
+                : (TextView) view.findViewById(android.R.id.text1);
+        String item = getItem(position);
+        text.setText(item != null ? item : "");
+        return view;
+    }
+
+    private void loadPage(final int page) {
+        if (!mLoading.add(page)) {
+            return;
+        }
+        FloatLabelExecutors.getBackgroundExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final List<String> options = new ArrayList<String>(PAGE_SIZE);
+                mSource.loadOptions(page * PAGE_SIZE, PAGE_SIZE, options);
+                mHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        mLoading.remove(page);
+                        mPages.put(page, options);
+                        notifyDataSetChanged();
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,230 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Drop-down adapter that asks a {@link SuggestionSource} for the top matches of the typed
+ * text. Only those matches are ever copied, unlike ArrayAdapter which scans and copies the
+ * whole data set on every keystroke.
+ *
+ * <p>Queries go through a {@link SuggestionFilterPipeline}, so they are debounced, run on the
+ * shared background executor and superseded by newer input. Until the latest results arrive
+ * the drop-down keeps showing the previous ones.
+ *
+ * <p>A new batch that equals the one shown is dropped without touching the list. Otherwise
+ * the batch's {@link SuggestionDiff} tells which row positions still hold the value their
+ * row was bound to, and those rows skip rebinding; only inserted and shifted rows are bound
+ * again. {@link #setMaxRows} caps how many rows the list creates.
+ */
+public class SuggestionAdapter extends BaseAdapter implements Filterable,
+        SuggestionFilterPipeline.Callback {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    private final LayoutInflater mInflater;
+    private final int mResource;
+
+    private final SuggestionFilterPipeline mPipeline;
+
+    private volatile List<String> mSuggestions = Collections.emptyList();
+    /** Incremented with every batch shown; rows remember the batch they were bound from. */
+    private int mBatch;
+    /** Changes from batch {@code mBatch - 1} to {@code mBatch}, or null. */
+    private SuggestionDiff mDiff;
+    private volatile int mMaxRows = Integer.MAX_VALUE;
+    private Filter mFilter;
+
+    public SuggestionAdapter(Context context, SuggestionSource source) {
+        this(context, source, android.R.layout.simple_dropdown_item_1line);
+    }
+
+    /**
+     * @param resource layout of a row, either a TextView or containing one with id
+     *                 {@code android.R.id.text1}
+     */
+    public SuggestionAdapter(Context context, SuggestionSource source, int resource) {
+        mInflater = LayoutInflater.from(context);
+        mResource = resource;
+        mPipeline = new SuggestionFilterPipeline(source, DEFAULT_LIMIT, this);
+    }
+
+    /**
+     * Fetches suggestions from {@code provider}, e.g. a {@link CachingSuggestionProvider} in
+     * front of a server-side search.
+     */
+    public SuggestionAdapter(Context context, AsyncSuggestionProvider provider) {
+        this(context, (SuggestionSource) null);
+        mPipeline.setSuggestionProvider(provider);
+    }
+
+    public void setSuggestionSource(SuggestionSource source) {
+        mPipeline.setSuggestionSource(source);
+    }
+
+    public void setSuggestionProvider(AsyncSuggestionProvider provider) {
+        mPipeline.setSuggestionProvider(provider);
+    }
+
+    public SuggestionSource getSuggestionSource() {
+        return mPipeline.getSuggestionSource();
+    }
+
+    /**
+     * Maximum number of suggestions shown at once.
+     */
+    public void setLimit(int limit) {
+        mPipeline.setLimit(limit);
+    }
+
+    public int getLimit() {
+        return mPipeline.getLimit();
+    }
+
+    /**
+     * Maximum number of rows shown in the drop-down, independent of how many suggestions are
+     * fetched.
+     */
+    public void setMaxRows(int maxRows) {
+        if (mMaxRows != maxRows) {
+            mMaxRows = maxRows;
+            notifyDataSetChanged();
+        }
+    }
+
+    public int getMaxRows() {
+        return mMaxRows;
+    }
+
+    /**
+     * Pipeline the queries run through, for configuring its debounce window and executor.
+     */
+    public SuggestionFilterPipeline getFilterPipeline() {
+        return mPipeline;
+    }
+
+    @Override
+    public void onSuggestionsReady(CharSequence constraint, List<String> suggestions,
+                                   SuggestionDiff diff) {
+        if (diff.getBase() != mSuggestions) {
+            // Computed against a batch that is not the one on screen; rebind every row.
+            diff = null;
+        } else if (diff.isEmpty()) {
+            // Keep the instance the next diff will be computed from.
+            mSuggestions = suggestions;
+            return;
+        }
+        mSuggestions = suggestions;
+        mBatch++;
+        mDiff = diff;
+        if (suggestions.isEmpty()) {
+            notifyDataSetInvalidated();
+        } else {
+            notifyDataSetChanged();
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return Math.min(mSuggestions.size(), mMaxRows);
+    }
+
+    @Override
+    public String getItem(int position) {
+        return mSuggestions.get(position);
+    }
+
+    /**
+     * Suggestions have no ids of their own, so ids are positions and not stable.
+     */
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        Row row;
+        View view;
+        if (convertView != null) {
+            view = convertView;
+            row = (Row) view.getTag();
+        } else {
+            view = mInflater.inflate(mResource, parent, false);
+            row = new Row(view instanceof TextView
+                    ? (TextView) view
+                    : (TextView) view.findViewById(android.R.id.text1));
+            view.setTag(row);
+        }
+        if (!row.shows(position)) {
+            row.mText.setText(getItem(position));
+        }
+        row.mBoundPosition = position;
+        row.mBoundBatch = mBatch;
+        return view;
+    }
+
+    @Override
+    public Filter getFilter() {
+        if (mFilter == null) {
+            mFilter = new SuggestionFilter();
+        }
+        return mFilter;
+    }
+
+    /**
+     * A row's text view and the position and batch it was last bound from.
+     */
+    private final class Row {
+        final TextView mText;
+        int mBoundPosition = -1;
+        int mBoundBatch = -1;
+
+        Row(TextView text) {
+            mText = text;
+        }
+
+        /**
+         * Whether the row already shows the suggestion at {@code position} of the current
+         * batch, either because it was bound from it or because the diff maps it there.
+         */
+        boolean shows(int position) {
+            if (mBoundPosition < 0) {
+                return false;
+            }
+            if (mBoundBatch == mBatch) {
+                return mBoundPosition == position;
+            }
+            return mBoundBatch == mBatch - 1 && mDiff != null
+                    && mDiff.getOldPosition(position) == mBoundPosition;
+        }
+    }
+
+    /**
+     * Hands the constraint to the pipeline and reports the suggestions currently shown, so
+     * the drop-down stays up until the new ones arrive.
+     */
+    private class SuggestionFilter extends Filter {
+
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            mPipeline.submit(constraint);
+            FilterResults results = new FilterResults();
+            results.count = getCount();
+            return results;
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+        }
+    }
+}
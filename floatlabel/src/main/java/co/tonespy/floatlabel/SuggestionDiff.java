@@ -0,0 +1,128 @@
+package co.tonespy.floatlabel;
+
+import java.util.List;
+
+/**
+ * Difference between two successive suggestion lists, as the removals and insertions that
+ * turn the old list into the new one around their longest common subsequence. Computed off
+ * the UI thread by {@link SuggestionFilterPipeline}. The unchanged head and tail are matched
+ * first, so only the part in between needs the quadratic table; suggestion lists are short,
+ * so even that is cheap.
+ *
+ * <p>{@link SuggestionAdapter} uses the position maps to tell which rows still show the
+ * right value after a new batch and skips rebinding them. The maps only hold against the
+ * {@link #getBase() list the diff was computed from}, so a diff whose base is not the list on
+ * screen must not be used.
+ */
+public final class SuggestionDiff {
+
+    private final List<String> mBase;
+    private final int[] mOldToNew;
+    private final int[] mNewToOld;
+    private final int mRemoveCount;
+    private final int mInsertCount;
+
+    private SuggestionDiff(List<String> base, int[] oldToNew, int[] newToOld, int removeCount,
+                           int insertCount) {
+        mBase = base;
+        mOldToNew = oldToNew;
+        mNewToOld = newToOld;
+        mRemoveCount = removeCount;
+        mInsertCount = insertCount;
+    }
+
+    public static SuggestionDiff compute(List<String> oldList, List<String> newList) {
+        int oldSize = oldList.size();
+        int newSize = newList.size();
+        int[] oldToNew = new int[oldSize];
+        int[] newToOld = new int[newSize];
+
+        int head = 0;
+        while (head < oldSize && head < newSize && oldList.get(head).equals(newList.get(head))) {
+            oldToNew[head] = head;
+            newToOld[head] = head;
+            head++;
+        }
+        int oldEnd = oldSize;
+        int newEnd = newSize;
+        while (oldEnd > head && newEnd > head
+                && oldList.get(oldEnd - 1).equals(newList.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+            oldToNew[oldEnd] = newEnd;
+            newToOld[newEnd] = oldEnd;
+        }
+
+        // lengths[i][j]: common subsequence length of oldList[head + i..oldEnd) and
+        // newList[head + j..newEnd)
+        int oldCount = oldEnd - head;
+        int newCount = newEnd - head;
+        int[][] lengths = new int[oldCount + 1][newCount + 1];
+        for (int i = oldCount - 1; i >= 0; i--) {
+            for (int j = newCount - 1; j >= 0; j--) {
+                lengths[i][j] = oldList.get(head + i).equals(newList.get(head + j))
+                        ? lengths[i + 1][j + 1] + 1
+                        : Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+            }
+        }
+
+        int i = 0;
+        int j = 0;
+        int removeCount = 0;
+        int insertCount = 0;
+        while (i < oldCount || j < newCount) {
+            if (i < oldCount && j < newCount
+                    && oldList.get(head + i).equals(newList.get(head + j))) {
+                oldToNew[head + i] = head + j;
+                newToOld[head + j] = head + i;
+                i++;
+                j++;
+            } else if (j >= newCount || (i < oldCount && lengths[i + 1][j] >= lengths[i][j + 1])) {
+                oldToNew[head + i] = -1;
+                i++;
+                removeCount++;
+            } else {
+                newToOld[head + j] = -1;
+                j++;
+                insertCount++;
+            }
+        }
+        return new SuggestionDiff(oldList, oldToNew, newToOld, removeCount, insertCount);
+    }
+
+    /**
+     * The old list, the one the diff was computed from.
+     */
+    public List<String> getBase() {
+        return mBase;
+    }
+
+    /**
+     * Whether both lists are equal.
+     */
+    public boolean isEmpty() {
+        return mRemoveCount == 0 && mInsertCount == 0;
+    }
+
+    public int getRemoveCount() {
+        return mRemoveCount;
+    }
+
+    public int getInsertCount() {
+        return mInsertCount;
+    }
+
+    /**
+     * Position of old item {@code oldPosition} in the new list, or -1 if it was removed.
+     */
+    public int getNewPosition(int oldPosition) {
+        return mOldToNew[oldPosition];
+    }
+
+    /**
+     * Position of new item {@code newPosition} in the old list, or -1 if it was inserted.
+     */
+    public int getOldPosition(int newPosition) {
+        return mNewToOld[newPosition];
+    }
+}
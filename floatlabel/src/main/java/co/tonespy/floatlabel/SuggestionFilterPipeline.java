@@ -0,0 +1,213 @@
+package co.tonespy.floatlabel;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns keystrokes into suggestion queries. A query only starts once the text has been
+ * stable for the debounce window, runs on the executor shared by every field
+ * ({@link FloatLabelExecutors#getBackgroundExecutor()} by default) and is delivered to the
+ * UI thread in one batch. Every new constraint supersedes the older ones: a superseded query
+ * is not started if it is still queued, and its results are dropped if it has already run.
+ * Queries go to either a {@link SuggestionSource} or an {@link AsyncSuggestionProvider}.
+ * Each batch comes with its {@link SuggestionDiff} against the previous one, computed before
+ * it reaches the UI thread.
+ *
+ * <p>{@link #submit(CharSequence)} and {@link #cancel()} may be called from any thread.
+ */
+public class SuggestionFilterPipeline {
+    private static final String TAG = "SuggestionFilterPipeline";
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+
+    /**
+     * Receives the results of the latest query on the UI thread.
+     */
+    public interface Callback {
+        /**
+         * @param diff changes from the previously delivered suggestions; only valid if its
+         *             {@link SuggestionDiff#getBase() base} is the list currently shown
+         */
+        void onSuggestionsReady(CharSequence constraint, List<String> suggestions,
+                                SuggestionDiff diff);
+    }
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private final Callback mCallback;
+
+    private volatile SuggestionSource mSource;
+    private volatile AsyncSuggestionProvider mProvider;
+    private volatile int mLimit;
+    private volatile long mDebounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+    private volatile Executor mExecutor;
+    private volatile String mPendingConstraint;
+    private volatile List<String> mDelivered = Collections.<String>emptyList();
+
+    private final Runnable mDispatch = new Runnable() {
+
+        @Override
+        public void run() {
+            dispatch(mGeneration.get(), mPendingConstraint);
+        }
+    };
+
+    public SuggestionFilterPipeline(SuggestionSource source, int limit, Callback callback) {
+        mSource = source;
+        mLimit = limit;
+        mCallback = callback;
+    }
+
+    public SuggestionFilterPipeline(AsyncSuggestionProvider provider, int limit,
+                                    Callback callback) {
+        this((SuggestionSource) null, limit, callback);
+        mProvider = provider;
+    }
+
+    /**
+     * Queries {@code source}, replacing any provider.
+     */
+    public void setSuggestionSource(SuggestionSource source) {
+        mSource = source;
+        mProvider = null;
+    }
+
+    public SuggestionSource getSuggestionSource() {
+        return mSource;
+    }
+
+    /**
+     * Queries {@code provider}, replacing any source.
+     */
+    public void setSuggestionProvider(AsyncSuggestionProvider provider) {
+        mProvider = provider;
+        mSource = null;
+    }
+
+    public AsyncSuggestionProvider getSuggestionProvider() {
+        return mProvider;
+    }
+
+    public void setLimit(int limit) {
+        mLimit = limit;
+    }
+
+    public int getLimit() {
+        return mLimit;
+    }
+
+    /**
+     * How long the text must stay unchanged before it is queried. Zero queries every
+     * constraint, still off the UI thread.
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        mDebounceMillis = debounceMillis;
+    }
+
+    public long getDebounceMillis() {
+        return mDebounceMillis;
+    }
+
+    /**
+     * Runs queries on {@code executor} instead of the shared FloatLabel executor. Null
+     * restores the shared one.
+     */
+    public void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    public Executor getExecutor() {
+        Executor executor = mExecutor;
+        return executor != null ? executor : FloatLabelExecutors.getBackgroundExecutor();
+    }
+
+    /**
+     * Schedules a query for {@code constraint}, superseding every earlier one.
+     */
+    public void submit(CharSequence constraint) {
+        mPendingConstraint = constraint != null ? constraint.toString() : null;
+        mGeneration.incrementAndGet();
+        mHandler.removeCallbacks(mDispatch);
+        mHandler.postDelayed(mDispatch, mDebounceMillis);
+    }
+
+    /**
+     * Drops the pending query and the results of any query in flight.
+     */
+    public void cancel() {
+        mGeneration.incrementAndGet();
+        mHandler.removeCallbacks(mDispatch);
+    }
+
+    private void dispatch(final int generation, final String constraint) {
+        getExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                if (generation != mGeneration.get()) {
+                    return;
+                }
+                int limit = mLimit;
+                AsyncSuggestionProvider provider = mProvider;
+                if (provider != null) {
+                    provider.requestSuggestions(constraint, limit,
+                            new Delivery(generation, constraint));
+                    return;
+                }
+                SuggestionSource source = mSource;
+                List<String> suggestions = new ArrayList<String>(limit);
+                if (source != null) {
+                    source.query(constraint, limit, suggestions);
+                }
+                deliver(generation, constraint, suggestions);
+            }
+        });
+    }
+
+    private void deliver(final int generation, final String constraint,
+                         final List<String> suggestions) {
+        if (generation != mGeneration.get()) {
+            return;
+        }
+        // mDelivered may still be replaced by an older batch before this one reaches the UI
+        // thread; the diff records its base so the callback can tell.
+        final SuggestionDiff diff = SuggestionDiff.compute(mDelivered, suggestions);
+        mHandler.post(new Runnable() {
+
+            @Override
+            public void run() {
+                if (generation == mGeneration.get()) {
+                    mDelivered = suggestions;
+                    mCallback.onSuggestionsReady(constraint, suggestions, diff);
+                }
+            }
+        });
+    }
+
+    private final class Delivery implements AsyncSuggestionProvider.Callback {
+        private final int mRequestGeneration;
+        private final String mConstraint;
+
+        Delivery(int generation, String constraint) {
+            mRequestGeneration = generation;
+            mConstraint = constraint;
+        }
+
+        @Override
+        public void onSuggestions(List<String> suggestions) {
+            deliver(mRequestGeneration, mConstraint, suggestions);
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            Log.w(TAG, "Suggestions for \"" + mConstraint + "\" failed", error);
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package co.tonespy.floatlabel;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded, persistent record of the suggestions a user picked, used to rank those values
+ * first. Every value keeps a use count and a last-use time in primitive arrays. Its score
+ * is the count, halved for every week since the last use. When the history is full, the
+ * lowest-scoring value is evicted.
+ *
+ * <p>Selections are appended to a log file in batches, a couple of seconds after the last
+ * one, on the shared background executor. Once the log holds several times more records
+ * than the history has values, it is compacted into a snapshot of the current counters.
+ * Call {@link #load()} off the UI thread, or {@link #loadInBackground()}, before relying on
+ * the ranking; nothing is written until the history has been loaded. A record torn by a crash
+ * mid-write is cut off the log when it is loaded, so later appends start on a record boundary.
+ *
+ * <p>Opt in with {@link FloatLabelAutoCompleteTextView#setSuggestionHistory}. All methods
+ * are thread safe.
+ */
+public class SuggestionHistory implements SuggestionSource {
+    private static final String TAG = "SuggestionHistory";
+
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final long FLUSH_DELAY = 2000;
+    private static final long HALF_LIFE = 7L * 24 * 60 * 60 * 1000;
+    private static final int COMPACTION_FACTOR = 4;
+
+    private static final int RECORD_USE = 1;
+    private static final int RECORD_SNAPSHOT = 2;
+
+    private final File mFile;
+    private final int mCapacity;
+
+    private final String[] mValues;
+    private final String[] mKeys;
+    private final int[] mCounts;
+    private final long[] mLastUsed;
+    private final Map<String, Integer> mSlots;
+    private int mSize;
+
+    private String[] mPendingValues = new String[8];
+    private long[] mPendingTimes = new long[8];
+    private int mPendingCount;
+    private int mLogRecords;
+    private boolean mLoaded;
+    private boolean mFlushScheduled;
+
+    private final Object mFileLock = new Object();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mFlush = new Runnable() {
+
+        @Override
+        public void run() {
+            FloatLabelExecutors.getBackgroundExecutor().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    };
+
+    public SuggestionHistory(File file) {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param file     append log the history is persisted to
+     * @param capacity maximum number of values remembered
+     */
+    public SuggestionHistory(File file, int capacity) {
+        mFile = file;
+        mCapacity = capacity;
+        mValues = new String[capacity];
+        mKeys = new String[capacity];
+        mCounts = new int[capacity];
+        mLastUsed = new long[capacity];
+        mSlots = new HashMap<String, Integer>(capacity * 2);
+    }
+
+    /**
+     * Reads the log, merging it with anything recorded since this history was created. Only
+     * the first call reads the log. Does disk I/O, so must not be called on the UI thread.
+     */
+    public void load() {
+        synchronized (mFileLock) {
+            synchronized (this) {
+                if (mLoaded) {
+                    return;
+                }
+            }
+            int records = 0;
+            byte[] log = readLog();
+            // The log is bounded by compaction, so it is read in one go; the bytes left in the
+            // stream after each record give the end of the last complete one.
+            ByteArrayInputStream bytes = new ByteArrayInputStream(log);
+            DataInputStream in = new DataInputStream(bytes);
+            int complete = 0;
+            try {
+                while (bytes.available() > 0) {
+                    int type = in.readByte();
+                    String value = in.readUTF();
+                    int count = type == RECORD_SNAPSHOT ? in.readInt() : 1;
+                    long time = in.readLong();
+                    synchronized (this) {
+                        apply(value, count, time);
+                    }
+                    records++;
+                    complete = log.length - bytes.available();
+                }
+            } catch (EOFException e) {
+                // A torn last record, cut off below.
+            } catch (IOException e) {
+                Log.w(TAG, "Dropping unreadable records from " + mFile, e);
+            }
+            if (complete < log.length) {
+                truncateLog(complete);
+            }
+            synchronized (this) {
+                mLogRecords = records;
+                mLoaded = true;
+                if (mPendingCount > 0) {
+                    scheduleFlush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@link #load()} on the shared background executor.
+     */
+    public void loadInBackground() {
+        FloatLabelExecutors.getBackgroundExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Records that the user picked {@code value}.
+     */
+    public synchronized void record(String value) {
+        long now = System.currentTimeMillis();
+        apply(value, 1, now);
+        if (mPendingCount == mPendingTimes.length) {
+            mPendingValues = Arrays.copyOf(mPendingValues, mPendingCount * 2);
+            mPendingTimes = Arrays.copyOf(mPendingTimes, mPendingCount * 2);
+        }
+        mPendingValues[mPendingCount] = value;
+        mPendingTimes[mPendingCount] = now;
+        mPendingCount++;
+        if (mLoaded) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Number of values remembered.
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * Appends the remembered values matching {@code constraint} at a word start, best scoring
+     * first, up to {@code limit}.
+     */
+    @Override
+    public void query(CharSequence constraint, int limit, List<String> out) {
+        String query = constraint != null ? SuggestionIndex.normalize(constraint) : "";
+        long now = System.currentTimeMillis();
+        int[] slots;
+        float[] scores;
+        int matches = 0;
+        synchronized (this) {
+            slots = new int[mSize];
+            scores = new float[mSize];
+            for (int i = 0; i < mSize; i++) {
+                if (matchesWordStart(mKeys[i], query)) {
+                    slots[matches] = i;
+                    scores[matches] = score(i, now);
+                    matches++;
+                }
+            }
+            // Selection of the best few; the history is small.
+            for (int n = 0; n < limit && n < matches; n++) {
+                int best = n;
+                for (int i = n + 1; i < matches; i++) {
+                    if (scores[i] > scores[best]) {
+                        best = i;
+                    }
+                }
+                int slot = slots[best];
+                slots[best] = slots[n];
+                scores[best] = scores[n];
+                out.add(mValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns a source that lists the remembered matches first and then the matches of
+     * {@code source}, without duplicates.
+     */
+    public SuggestionSource rank(final SuggestionSource source) {
+        return new SuggestionSource() {
+
+            @Override
+            public void query(CharSequence constraint, int limit, List<String> out) {
+                int start = out.size();
+                SuggestionHistory.this.query(constraint, limit, out);
+                int remembered = out.size() - start;
+                if (source == null || remembered >= limit) {
+                    return;
+                }
+                List<String> results = new ArrayList<String>(limit);
+                source.query(constraint, limit, results);
+                for (int i = 0, count = results.size();
+                     i < count && out.size() - start < limit; i++) {
+                    String value = results.get(i);
+                    if (!out.subList(start, start + remembered).contains(value)) {
+                        out.add(value);
+                    }
+                }
+            }
+        };
+    }
+
+    private void apply(String value, int count, long time) {
+        Integer slot = mSlots.get(value);
+        int i;
+        if (slot != null) {
+            i = slot;
+        } else {
+            i = mSize < mCapacity ? mSize++ : evict(time);
+            mValues[i] = value;
+            mKeys[i] = SuggestionIndex.normalize(value);
+            mCounts[i] = 0;
+            mLastUsed[i] = 0;
+            mSlots.put(value, i);
+        }
+        mCounts[i] += count;
+        mLastUsed[i] = Math.max(mLastUsed[i], time);
+    }
+
+    private int evict(long now) {
+        int lowest = 0;
+        float lowestScore = Float.MAX_VALUE;
+        for (int i = 0; i < mSize; i++) {
+            float score = score(i, now);
+            if (score < lowestScore) {
+                lowest = i;
+                lowestScore = score;
+            }
+        }
+        mSlots.remove(mValues[lowest]);
+        return lowest;
+    }
+
+    private float score(int slot, long now) {
+        double halfLives = Math.max(0, now - mLastUsed[slot]) / (double) HALF_LIFE;
+        return (float) (mCounts[slot] * Math.pow(0.5, halfLives));
+    }
+
+    private void scheduleFlush() {
+        if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            mHandler.postDelayed(mFlush, FLUSH_DELAY);
+        }
+    }
+
+    private void flush() {
+        synchronized (mFileLock) {
+            String[] values;
+            long[] times;
+            String[] snapshotValues = null;
+            int[] snapshotCounts = null;
+            long[] snapshotLastUsed = null;
+            synchronized (this) {
+                mFlushScheduled = false;
+                int count = mPendingCount;
+                values = Arrays.copyOf(mPendingValues, count);
+                times = Arrays.copyOf(mPendingTimes, count);
+                Arrays.fill(mPendingValues, 0, count, null);
+                mPendingCount = 0;
+                mLogRecords += count;
+                if (mLogRecords > COMPACTION_FACTOR * mCapacity) {
+                    // Copied together with the drain, so a selection recorded from here on
+                    // is pending and not also part of the snapshot.
+                    snapshotValues = Arrays.copyOf(mValues, mSize);
+                    snapshotCounts = Arrays.copyOf(mCounts, mSize);
+                    snapshotLastUsed = Arrays.copyOf(mLastUsed, mSize);
+                }
+            }
+            boolean written;
+            if (snapshotValues != null) {
+                written = compact(snapshotValues, snapshotCounts, snapshotLastUsed);
+            } else {
+                written = values.length == 0 || append(values, times);
+            }
+            if (!written) {
+                requeue(values, times);
+            }
+        }
+    }
+
+    /**
+     * Puts records that could not be written back ahead of the pending ones, for the next
+     * flush to retry.
+     */
+    private synchronized void requeue(String[] values, long[] times) {
+        int count = values.length;
+        mLogRecords -= count;
+        if (count == 0) {
+            return;
+        }
+        int total = mPendingCount + count;
+        if (total > mPendingTimes.length) {
+            mPendingValues = Arrays.copyOf(mPendingValues, Math.max(total, mPendingCount * 2));
+            mPendingTimes = Arrays.copyOf(mPendingTimes, mPendingValues.length);
+        }
+        System.arraycopy(mPendingValues, 0, mPendingValues, count, mPendingCount);
+        System.arraycopy(mPendingTimes, 0, mPendingTimes, count, mPendingCount);
+        System.arraycopy(values, 0, mPendingValues, 0, count);
+        System.arraycopy(times, 0, mPendingTimes, 0, count);
+        mPendingCount = total;
+    }
+
+    private byte[] readLog() {
+        if (!mFile.exists()) {
+            // Nothing recorded yet.
+            return new byte[0];
+        }
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(mFile, "r");
+            byte[] log = new byte[(int) file.length()];
+            file.readFully(log);
+            return log;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read " + mFile, e);
+            return new byte[0];
+        } finally {
+            closeQuietly(file);
+        }
+    }
+
+    /**
+     * Cuts the log back to its first {@code length} bytes, the records that could be read.
+     */
+    private void truncateLog(long length) {
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(mFile, "rw");
+            file.setLength(length);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to truncate " + mFile, e);
+        } finally {
+            closeQuietly(file);
+        }
+    }
+
+    /**
+     * Appends use records to the log, or leaves the log as it was and returns false.
+     */
+    private boolean append(String[] values, long[] times) {
+        long length = mFile.length();
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(mFile, true)));
+            for (int i = 0; i < values.length; i++) {
+                out.writeByte(RECORD_USE);
+                out.writeUTF(values[i]);
+                out.writeLong(times[i]);
+            }
+            out.close();
+            out = null;
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to append to " + mFile, e);
+            closeQuietly(out);
+            out = null;
+            // Drop whatever part of the batch made it, so the retry does not count it twice.
+            truncateLog(length);
+            return false;
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    /**
+     * Rewrites the log as one snapshot record per remembered value, or leaves the log as it
+     * was and returns false.
+     */
+    private boolean compact(String[] values, int[] counts, long[] lastUsed) {
+        File tmp = new File(mFile.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            for (int i = 0; i < values.length; i++) {
+                out.writeByte(RECORD_SNAPSHOT);
+                out.writeUTF(values[i]);
+                out.writeInt(counts[i]);
+                out.writeLong(lastUsed[i]);
+            }
+            out.close();
+            out = null;
+            if (!tmp.renameTo(mFile)) {
+                throw new IOException("Failed to rename " + tmp);
+            }
+            synchronized (this) {
+                // Records pending since the snapshot was taken are still to be appended.
+                mLogRecords = values.length;
+            }
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to compact " + mFile, e);
+            return false;
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private static boolean matchesWordStart(String key, String query) {
+        if (key.startsWith(query)) {
+            return true;
+        }
+        for (int i = 1, end = key.length() - query.length(); i <= end; i++) {
+            if (!Character.isLetterOrDigit(key.charAt(i - 1))
+                    && Character.isLetterOrDigit(key.charAt(i))
+                    && key.startsWith(query, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package co.tonespy.floatlabel;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable in-memory {@link SuggestionSource} over a fixed set of strings.
+ *
+ * <p>Values are kept in a {@link PackedStringStore}. Every value is normalised once (lower
+ * case, accents removed) and indexed by the start of each of its words in two sorted arrays,
+ * one for whole-value prefixes and one for later words. A query is two binary searches
+ * followed by a scan of at most the matches it returns, so its cost does not grow with the
+ * size of the set. Values matching from their first character are returned first, in
+ * alphabetical order. Values matching on a later word follow, ordered by the text from the
+ * matched word onwards, so "Upper Zoo Road" comes before "Alpha Zulu" for the query "z".
+ *
+ * <p>Building the index sorts the whole set, so large sets should be indexed off the main
+ * thread. One index can be shared by any number of fields.
+ */
+public final class SuggestionIndex implements SuggestionSource {
+
+    private static final int INSERTION_SORT_THRESHOLD = 8;
+
+    private final PackedStringStore mValues;
+    private final PackedStringStore mKeys;
+    private final char[] mKeyChars;
+    /** Value index in the high and key offset in the low 32 bits, sorted by key suffix. */
+    private final long[] mPrefixes;
+    private final long[] mWordStarts;
+
+    public SuggestionIndex(String... values) {
+        this(Arrays.asList(values));
+    }
+
+    public SuggestionIndex(Collection<String> values) {
+        this(PackedStringStore.of(values));
+    }
+
+    /**
+     * Indexes the entries of {@code values} in place; only the normalised keys are copied.
+     * Values whose normalised keys are equal are indexed once, at their first position.
+     */
+    public SuggestionIndex(PackedStringStore values) {
+        this(values, false);
+    }
+
+    /**
+     * Like {@link #SuggestionIndex(PackedStringStore)}, but with {@code keepDuplicates} every
+     * position is indexed, so options that share a label can all be found.
+     */
+    public SuggestionIndex(PackedStringStore values, boolean keepDuplicates) {
+        int count = values.size();
+        mValues = values;
+        PackedStringStore.Builder keys = new PackedStringStore.Builder(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(normalize(values.get(i)));
+        }
+        mKeys = keys.build();
+        mKeyChars = mKeys.chars();
+
+        long[] prefixes = new long[count];
+        for (int i = 0; i < count; i++) {
+            prefixes[i] = entry(i, 0);
+        }
+        long[] tmp = new long[count];
+        sort(prefixes, tmp, 0, count);
+
+        // Equal values end up next to each other; unless duplicates are kept, only the first
+        // of them is indexed.
+        boolean[] duplicate = new boolean[count];
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (!keepDuplicates && i > 0 && compare(prefixes[i - 1], prefixes[i]) == 0) {
+                duplicate[value(prefixes[i])] = true;
+            } else {
+                prefixes[unique++] = prefixes[i];
+            }
+        }
+        mPrefixes = unique == count ? prefixes : Arrays.copyOf(prefixes, unique);
+
+        int wordStartCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (!duplicate[i]) {
+                wordStartCount += countWordStarts(i);
+            }
+        }
+        long[] wordStarts = new long[wordStartCount];
+        int w = 0;
+        for (int i = 0; i < count; i++) {
+            if (duplicate[i]) {
+                continue;
+            }
+            int start = mKeys.start(i);
+            for (int offset = start + 1, end = mKeys.end(i); offset < end; offset++) {
+                if (isWordStart(offset)) {
+                    wordStarts[w++] = entry(i, offset - start);
+                }
+            }
+        }
+        if (tmp.length < wordStartCount) {
+            tmp = new long[wordStartCount];
+        }
+        sort(wordStarts, tmp, 0, wordStartCount);
+        mWordStarts = wordStarts;
+    }
+
+    /**
+     * Lower-cases {@code text} and strips its accents, the same way indexed values are.
+     */
+    public static String normalize(CharSequence text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder builder = new StringBuilder(decomposed.length());
+        for (int i = 0, length = decomposed.length(); i < length; i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Number of values in the index, not counting dropped duplicates.
+     */
+    public int size() {
+        return mPrefixes.length;
+    }
+
+    PackedStringStore values() {
+        return mValues;
+    }
+
+    PackedStringStore keys() {
+        return mKeys;
+    }
+
+    /**
+     * Indexed values, in key order.
+     */
+    long[] prefixes() {
+        return mPrefixes;
+    }
+
+    long[] wordStarts() {
+        return mWordStarts;
+    }
+
+    @Override
+    public void query(CharSequence constraint, int limit, List<String> out) {
+        if (limit <= 0) {
+            return;
+        }
+        int[] indices = new int[limit];
+        for (int i = 0, count = queryIndices(constraint, limit, indices); i < count; i++) {
+            out.add(mValues.get(indices[i]));
+        }
+    }
+
+    /**
+     * Like {@link #query} but stores the positions of the matches in the indexed
+     * {@link PackedStringStore} in {@code out}, and returns how many there are.
+     */
+    public int queryIndices(CharSequence constraint, int limit, int[] out) {
+        limit = Math.min(limit, out.length);
+        if (limit <= 0) {
+            return 0;
+        }
+        String query = constraint != null ? normalize(constraint) : "";
+        int count = collect(mPrefixes, query, limit, out, 0);
+        if (count < limit && query.length() > 0) {
+            count = collect(mWordStarts, query, limit, out, count);
+        }
+        return count;
+    }
+
+    private int collect(long[] entries, String query, int limit, int[] added, int addedCount) {
+        for (int i = lowerBound(entries, query), count = entries.length;
+             i < count && addedCount < limit; i++) {
+            long entry = entries[i];
+            if (comparePrefix(entry, query) != 0) {
+                break;
+            }
+            int value = value(entry);
+            if (!contains(added, addedCount, value)) {
+                added[addedCount++] = value;
+            }
+        }
+        return addedCount;
+    }
+
+    private int lowerBound(long[] entries, String query) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long entry = entries[mid];
+            if (comparePrefix(entry, query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the first {@code query.length()} characters of the key suffix {@code entry}
+     * points at with {@code query}; a shorter suffix sorts first.
+     */
+    private int comparePrefix(long entry, String query) {
+        int value = value(entry);
+        int start = mKeys.start(value) + offset(entry);
+        int suffixLength = mKeys.end(value) - start;
+        int length = Math.min(suffixLength, query.length());
+        for (int i = 0; i < length; i++) {
+            int diff = mKeyChars[start + i] - query.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return suffixLength >= query.length() ? 0 : -1;
+    }
+
+    private int compare(long a, long b) {
+        int valueA = value(a);
+        int valueB = value(b);
+        int startA = mKeys.start(valueA) + offset(a);
+        int startB = mKeys.start(valueB) + offset(b);
+        int lengthA = mKeys.end(valueA) - startA;
+        int lengthB = mKeys.end(valueB) - startB;
+        for (int i = 0, length = Math.min(lengthA, lengthB); i < length; i++) {
+            int diff = mKeyChars[startA + i] - mKeyChars[startB + i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        if (lengthA != lengthB) {
+            return lengthA - lengthB;
+        }
+        return compareValues(valueA, valueB);
+    }
+
+    private int compareValues(int a, int b) {
+        char[] chars = mValues.chars();
+        int startA = mValues.start(a);
+        int startB = mValues.start(b);
+        int lengthA = mValues.end(a) - startA;
+        int lengthB = mValues.end(b) - startB;
+        for (int i = 0, length = Math.min(lengthA, lengthB); i < length; i++) {
+            int diff = chars[startA + i] - chars[startB + i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Stable merge sort of {@code entries[from, to)}, avoiding the boxing a Comparator would
+     * need.
+     */
+    private void sort(long[] entries, long[] tmp, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                long entry = entries[i];
+                int j = i - 1;
+                while (j >= from && compare(entries[j], entry) > 0) {
+                    entries[j + 1] = entries[j];
+                    j--;
+                }
+                entries[j + 1] = entry;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(entries, tmp, from, mid);
+        sort(entries, tmp, mid, to);
+        if (compare(entries[mid - 1], entries[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(entries, from, tmp, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && compare(tmp[left], tmp[right]) <= 0)) {
+                entries[i] = tmp[left++];
+            } else {
+                entries[i] = tmp[right++];
+            }
+        }
+    }
+
+    private int countWordStarts(int value) {
+        int count = 0;
+        for (int offset = mKeys.start(value) + 1, end = mKeys.end(value); offset < end; offset++) {
+            if (isWordStart(offset)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isWordStart(int position) {
+        return Character.isLetterOrDigit(mKeyChars[position])
+                && !Character.isLetterOrDigit(mKeyChars[position - 1]);
+    }
+
+    private static long entry(int value, int offset) {
+        return ((long) value << 32) | offset;
+    }
+
+    static int value(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    static int offset(long entry) {
+        return (int) entry;
+    }
+}
@@ -0,0 +1,16 @@
+package co.tonespy.floatlabel;
+
+import java.util.List;
+
+/**
+ * Supplies the suggestions shown by {@link FloatLabelAutoCompleteTextView} for the text typed
+ * so far. Queries run on a background thread, so implementations must be thread safe.
+ */
+public interface SuggestionSource {
+
+    /**
+     * Appends at most {@code limit} suggestions for {@code constraint} to {@code out}, best
+     * match first.
+     */
+    void query(CharSequence constraint, int limit, List<String> out);
+}
@@ -0,0 +1,180 @@
+package co.tonespy.floatlabel;
+
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.view.View;
+import android.view.ViewParent;
+import android.widget.TextView;
+
+/**
+ * {@link FloatLabelController} whose label is a separate TextView, slid and faded in with
+ * {@code translationY} and {@code alpha}. Color changes go through one reused
+ * ColorStateList, so they only invalidate the label view.
+ *
+ * <p>Given a {@link FloatLabelStub}, the TextView is only created on the label's first
+ * entrance; until then text, size, typeface and color changes are kept here and the stub
+ * reserves the label's height.
+ */
+public class ViewLabelController extends FloatLabelController {
+
+    private TextView mLabelView;
+    private FloatLabelStub mStub;
+    private final LabelColorStateList mLabelColors;
+
+    private CharSequence mText;
+    private boolean mTypefaceSet;
+    private Typeface mTypeface;
+    private int mTypefaceStyle = -1;
+    private ColorStateList mTextColor;
+
+    public ViewLabelController(TextView labelView) {
+        mLabelColors = new LabelColorStateList(HINT_DEFAULT_COLOR_DISABLED);
+        setLabelView(labelView);
+    }
+
+    /**
+     * Creates a controller whose label replaces {@code stub} when it is first shown.
+     */
+    public ViewLabelController(FloatLabelStub stub) {
+        mLabelColors = new LabelColorStateList(HINT_DEFAULT_COLOR_DISABLED);
+        mStub = stub;
+    }
+
+    /**
+     * Returns a controller for a label view from a FloatLabel layout, which is either the
+     * TextView itself or a {@link FloatLabelStub} for it.
+     */
+    static ViewLabelController forLabel(View label) {
+        return label instanceof FloatLabelStub
+                ? new ViewLabelController((FloatLabelStub) label)
+                : new ViewLabelController((TextView) label);
+    }
+
+    /**
+     * Returns the label TextView, creating it now if it is still a stub.
+     */
+    public TextView getLabelView() {
+        if (mLabelView == null) {
+            TextView label = mStub.inflate();
+            mStub = null;
+            setLabelView(label);
+            if (mText != null) {
+                label.setText(mText);
+            }
+            if (mTypefaceSet) {
+                if (mTypefaceStyle >= 0) {
+                    label.setTypeface(mTypeface, mTypefaceStyle);
+                } else {
+                    label.setTypeface(mTypeface);
+                }
+            }
+            if (mTextColor != null) {
+                label.setTextColor(mTextColor);
+            }
+            mText = null;
+            mTypeface = null;
+            mTextColor = null;
+        }
+        return mLabelView;
+    }
+
+    /**
+     * Whether the label TextView exists, i.e. it has been shown or asked for.
+     */
+    public boolean isLabelViewCreated() {
+        return mLabelView != null;
+    }
+
+    public CharSequence getLabelText() {
+        return mLabelView != null ? mLabelView.getText() : mText;
+    }
+
+    /**
+     * The field the label belongs to, which is visible even while the label is not.
+     */
+    @Override
+    protected View getHostView() {
+        View label = mLabelView != null ? mLabelView : mStub;
+        ViewParent parent = label.getParent();
+        return parent instanceof View ? (View) parent : label;
+    }
+
+    @Override
+    protected void onLabelProgressChanged(float progress) {
+        if (mLabelView == null && progress <= 0f) {
+            return;
+        }
+        TextView label = getLabelView();
+        label.setTranslationY(LABEL_TRANSLATION * (1f - progress));
+        label.setAlpha(progress);
+        label.setVisibility(progress > 0f ? View.VISIBLE : View.INVISIBLE);
+    }
+
+    @Override
+    protected void onLabelColorChanged(int color) {
+        mLabelColors.setColor(color);
+        mTextColor = null;
+        if (mLabelView != null) {
+            mLabelView.setTextColor(mLabelColors);
+        }
+    }
+
+    @Override
+    public void setLabelText(CharSequence text) {
+        if (mLabelView != null) {
+            mLabelView.setText(text);
+        } else {
+            mText = text;
+        }
+    }
+
+    @Override
+    public void setLabelTextSize(int unit, float size) {
+        if (mLabelView != null) {
+            mLabelView.setTextSize(unit, size);
+        } else {
+            mStub.setTextSize(unit, size);
+        }
+    }
+
+    @Override
+    public void setLabelTypeface(Typeface tf) {
+        setLabelTypeface(tf, -1);
+    }
+
+    /**
+     * Sets the label typeface like {@link TextView#setTypeface(Typeface, int)}, or like
+     * {@link TextView#setTypeface(Typeface)} for a negative {@code style}.
+     */
+    public void setLabelTypeface(Typeface tf, int style) {
+        if (mLabelView != null) {
+            if (style >= 0) {
+                mLabelView.setTypeface(tf, style);
+            } else {
+                mLabelView.setTypeface(tf);
+            }
+        } else {
+            mTypefaceSet = true;
+            mTypeface = tf;
+            mTypefaceStyle = style;
+            mStub.setTypeface(tf);
+        }
+    }
+
+    /**
+     * Overrides the label colors until the next focus color change.
+     */
+    public void setLabelTextColor(ColorStateList colors) {
+        if (mLabelView != null) {
+            mLabelView.setTextColor(colors);
+        } else {
+            mTextColor = colors;
+        }
+    }
+
+    private void setLabelView(TextView labelView) {
+        mLabelView = labelView;
+        mLabelView.setVisibility(View.INVISIBLE);
+        mLabelView.setTextColor(mLabelColors);
+    }
+}
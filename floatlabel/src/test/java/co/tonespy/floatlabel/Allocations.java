@@ -0,0 +1,28 @@
+package co.tonespy.floatlabel;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap allocations made by the current thread, through HotSpot's per-thread
+ * allocation counter.
+ */
+final class Allocations {
+
+    private static final com.sun.management.ThreadMXBean sThreads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Allocations() {
+    }
+
+    /**
+     * Bytes allocated while running {@code task}, minus what reading the counter costs.
+     */
+    static long measure(Runnable task) {
+        long threadId = Thread.currentThread().getId();
+        long start = sThreads.getThreadAllocatedBytes(threadId);
+        long calibration = sThreads.getThreadAllocatedBytes(threadId);
+        task.run();
+        long end = sThreads.getThreadAllocatedBytes(threadId);
+        return (end - calibration) - (calibration - start);
+    }
+}
@@ -0,0 +1,187 @@
+package co.tonespy.floatlabel;
+
+import android.os.SystemClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CachingSuggestionProviderTest {
+
+    private static final List<String> CITIES = Arrays.asList("Lagos", "Lafia", "Lokoja",
+            "Kano", "Kaduna", "Katsina", "Abuja", "Calabar", "Ilorin", "Enugu");
+    private static final int LIMIT = 20;
+    private static final long LATENCY = 50;
+
+    private SubstringSource mSource;
+    private FakeSuggestionProvider mBackend;
+    private CachingSuggestionProvider mProvider;
+
+    @Before
+    public void setUp() {
+        mSource = new SubstringSource(CITIES);
+        mBackend = new FakeSuggestionProvider(mSource, LATENCY);
+        mProvider = new CachingSuggestionProvider(mBackend, 16, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        mBackend.shutdown();
+    }
+
+    @Test
+    public void typingAndErasingIsServedFromTheCache() throws InterruptedException {
+        String[] typed = { "l", "la", "lag", "lagos", "lag", "la", "l" };
+        for (String query : typed) {
+            assertEquals(query, mSource.expected(query), request(query).await());
+        }
+
+        assertEquals(1, mBackend.getRequestCount());
+        assertEquals(1, mProvider.getMissCount());
+        assertEquals(3, mProvider.getPrefixHitCount());
+        assertEquals(3, mProvider.getHitCount());
+        float hitRate = (float) (mProvider.getHitCount() + mProvider.getPrefixHitCount())
+                / typed.length;
+        assertEquals(6f / 7f, hitRate, 0.001f);
+    }
+
+    @Test
+    public void cacheHitsAnswerWithoutBackendLatency() throws InterruptedException {
+        Result miss = request("ka");
+        assertFalse(miss.isDone());
+        long start = System.nanoTime();
+        miss.await();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(LATENCY / 2));
+
+        assertTrue(request("ka").isDone());
+        assertTrue(request("kan").isDone());
+        assertEquals(1, mBackend.getRequestCount());
+    }
+
+    @Test
+    public void identicalRequestsInFlightAreSentOnce() throws InterruptedException {
+        Result first = request("ab");
+        Result second = request("ab");
+        assertEquals(mSource.expected("ab"), first.await());
+        assertEquals(mSource.expected("ab"), second.await());
+        assertEquals(1, mBackend.getRequestCount());
+        assertEquals(1, mProvider.getJoinCount());
+    }
+
+    @Test
+    public void truncatedResultsAreNotRefined() throws InterruptedException {
+        Result truncated = new Result();
+        mProvider.requestSuggestions("a", 2, truncated);
+        assertEquals(2, truncated.await().size());
+        assertEquals(mSource.expected("ab"), request("ab").await());
+        assertEquals(0, mProvider.getPrefixHitCount());
+        assertEquals(2, mBackend.getRequestCount());
+    }
+
+    @Test
+    public void expiredResultsAreFetchedAgain() throws InterruptedException {
+        request("en").await();
+        SystemClock.sleep(1001);
+        request("en").await();
+        assertEquals(2, mBackend.getRequestCount());
+        assertEquals(0, mProvider.getHitCount());
+    }
+
+    @Test
+    public void refinementCanBeTurnedOff() throws InterruptedException {
+        mProvider.setRefinePrefixes(false);
+        request("l").await();
+        request("lo").await();
+        assertEquals(2, mBackend.getRequestCount());
+        assertEquals(0, mProvider.getPrefixHitCount());
+    }
+
+    @Test
+    public void failuresAreNotCached() throws InterruptedException {
+        mBackend.setFailure(new RuntimeException("offline"));
+        Result failed = request("il");
+        failed.await();
+        assertNotNull(failed.mError);
+
+        mBackend.setFailure(null);
+        assertEquals(mSource.expected("il"), request("il").await());
+        assertEquals(2, mBackend.getRequestCount());
+    }
+
+    private Result request(String query) {
+        Result result = new Result();
+        mProvider.requestSuggestions(query, LIMIT, result);
+        return result;
+    }
+
+    /**
+     * Returns every value containing the query, in list order, which is what the default
+     * {@link CachingSuggestionProvider#matches} mirrors.
+     */
+    private static final class SubstringSource implements SuggestionSource {
+        private final List<String> mValues;
+
+        SubstringSource(List<String> values) {
+            mValues = values;
+        }
+
+        @Override
+        public void query(CharSequence constraint, int limit, List<String> out) {
+            String query = SuggestionIndex.normalize(constraint);
+            for (int i = 0; i < mValues.size() && out.size() < limit; i++) {
+                if (SuggestionIndex.normalize(mValues.get(i)).contains(query)) {
+                    out.add(mValues.get(i));
+                }
+            }
+        }
+
+        List<String> expected(String query) {
+            List<String> out = new ArrayList<String>();
+            query(query, LIMIT, out);
+            return out;
+        }
+    }
+
+    private static final class Result implements AsyncSuggestionProvider.Callback {
+        private final CountDownLatch mDone = new CountDownLatch(1);
+        private volatile List<String> mSuggestions;
+        private volatile Throwable mError;
+
+        @Override
+        public void onSuggestions(List<String> suggestions) {
+            mSuggestions = suggestions;
+            mDone.countDown();
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            mError = error;
+            mDone.countDown();
+        }
+
+        boolean isDone() {
+            return mDone.getCount() == 0;
+        }
+
+        List<String> await() throws InterruptedException {
+            assertTrue(mDone.await(5, TimeUnit.SECONDS));
+            return mSuggestions;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package co.tonespy.floatlabel;
+
+import android.text.Editable;
+import android.text.InputFilter;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Editable over a growable char array that keeps no spans and applies no filters, so edits
+ * allocate nothing once it has grown to size. Public so the benchmark module can reuse it;
+ * it runs on the desktop JVM, where the framework's Editables are unavailable.
+ */
+public final class CharArrayEditable implements Editable {
+
+    private static final InputFilter[] NO_FILTERS = new InputFilter[0];
+
+    private char[] mChars;
+    private int mLength;
+    private InputFilter[] mFilters = NO_FILTERS;
+
+    public CharArrayEditable(int capacity) {
+        mChars = new char[capacity];
+    }
+
+    @Override
+    public Editable replace(int st, int en, CharSequence source, int start, int end) {
+        if (st < 0 || st > en || en > mLength) {
+            throw new IndexOutOfBoundsException(st + ", " + en + " of " + mLength);
+        }
+        int inserted = end - start;
+        int length = mLength - (en - st) + inserted;
+        if (length > mChars.length) {
+            mChars = Arrays.copyOf(mChars, Math.max(length, mChars.length * 2));
+        }
+        System.arraycopy(mChars, en, mChars, st + inserted, mLength - en);
+        for (int i = 0; i < inserted; i++) {
+            mChars[st + i] = source.charAt(start + i);
+        }
+        mLength = length;
+        return this;
+    }
+
+    @Override
+    public Editable replace(int st, int en, CharSequence text) {
+        return replace(st, en, text, 0, text.length());
+    }
+
+    @Override
+    public Editable insert(int where, CharSequence text, int start, int end) {
+        return replace(where, where, text, start, end);
+    }
+
+    @Override
+    public Editable insert(int where, CharSequence text) {
+        return replace(where, where, text, 0, text.length());
+    }
+
+    @Override
+    public Editable delete(int st, int en) {
+        return replace(st, en, "", 0, 0);
+    }
+
+    @Override
+    public Editable append(CharSequence text) {
+        return replace(mLength, mLength, text, 0, text.length());
+    }
+
+    @Override
+    public Editable append(CharSequence text, int start, int end) {
+        return replace(mLength, mLength, text, start, end);
+    }
+
+    @Override
+    public Editable append(char text) {
+        if (mLength == mChars.length) {
+            mChars = Arrays.copyOf(mChars, Math.max(1, mChars.length * 2));
+        }
+        mChars[mLength++] = text;
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        mLength = 0;
+    }
+
+    @Override
+    public void clearSpans() {
+    }
+
+    @Override
+    public void setFilters(InputFilter[] filters) {
+        mFilters = filters;
+    }
+
+    @Override
+    public InputFilter[] getFilters() {
+        return mFilters;
+    }
+
+    @Override
+    public void getChars(int start, int end, char[] dest, int destoff) {
+        System.arraycopy(mChars, start, dest, destoff, end - start);
+    }
+
+    @Override
+    public void setSpan(Object what, int start, int end, int flags) {
+    }
+
+    @Override
+    public void removeSpan(Object what) {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] getSpans(int start, int end, Class<T> type) {
+        return (T[]) Array.newInstance(type, 0);
+    }
+
+    @Override
+    public int getSpanStart(Object tag) {
+        return -1;
+    }
+
+    @Override
+    public int getSpanEnd(Object tag) {
+        return -1;
+    }
+
+    @Override
+    public int getSpanFlags(Object tag) {
+        return 0;
+    }
+
+    @Override
+    public int nextSpanTransition(int start, int limit, Class type) {
+        return limit;
+    }
+
+    @Override
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= mLength) {
+            throw new IndexOutOfBoundsException(index + " of " + mLength);
+        }
+        return mChars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(mChars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(mChars, 0, mLength);
+    }
+}
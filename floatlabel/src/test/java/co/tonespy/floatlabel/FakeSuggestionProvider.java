@@ -0,0 +1,88 @@
+package co.tonespy.floatlabel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for a remote {@link AsyncSuggestionProvider}. It answers from a local
+ * {@link SuggestionSource} after a fixed latency and counts the requests it receives, so
+ * caching and latency behaviour can be exercised without a network.
+ */
+public class FakeSuggestionProvider implements AsyncSuggestionProvider {
+
+    private final SuggestionSource mSource;
+    private final ScheduledThreadPoolExecutor mScheduler;
+    private final AtomicInteger mRequestCount = new AtomicInteger();
+
+    private volatile long mLatencyMillis;
+    private volatile Throwable mFailure;
+
+    /**
+     * @param latencyMillis delay before each response is delivered
+     */
+    public FakeSuggestionProvider(SuggestionSource source, long latencyMillis) {
+        mSource = source;
+        mLatencyMillis = latencyMillis;
+        mScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "FakeSuggestionProvider");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public void requestSuggestions(final String query, final int limit, final Callback callback) {
+        mRequestCount.incrementAndGet();
+        final Throwable failure = mFailure;
+        mScheduler.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                if (failure != null) {
+                    callback.onFailure(failure);
+                    return;
+                }
+                List<String> suggestions = new ArrayList<String>(limit);
+                mSource.query(query, limit, suggestions);
+                callback.onSuggestions(suggestions);
+            }
+        }, mLatencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        mLatencyMillis = latencyMillis;
+    }
+
+    public long getLatencyMillis() {
+        return mLatencyMillis;
+    }
+
+    /**
+     * Makes every following request fail with {@code failure}; null makes them succeed again.
+     */
+    public void setFailure(Throwable failure) {
+        mFailure = failure;
+    }
+
+    /**
+     * Number of requests received so far.
+     */
+    public int getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * Stops the delivery thread. Requests still pending are dropped.
+     */
+    public void shutdown() {
+        mScheduler.shutdownNow();
+    }
+}
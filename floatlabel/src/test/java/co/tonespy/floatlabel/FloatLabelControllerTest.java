@@ -0,0 +1,201 @@
+package co.tonespy.floatlabel;
+
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatLabelControllerTest {
+
+    private static final int FOCUSED_COLOR = 0xFFFF0000;
+
+    @Before
+    public void setUp() {
+        FloatLabelMotionPolicy.setAnimationsEnabled(true);
+    }
+
+    @Test
+    public void blendArgbInterpolatesEveryChannel() {
+        assertEquals(0x00000000, FloatLabelController.blendArgb(0x00000000, 0xFFFFFFFF, 0f));
+        assertEquals(0xFFFFFFFF, FloatLabelController.blendArgb(0x00000000, 0xFFFFFFFF, 1f));
+        assertEquals(0x7F402010, FloatLabelController.blendArgb(0x00000000, 0xFF804020, 0.5f));
+        assertEquals(0xFF804020, FloatLabelController.blendArgb(0xFF804020, 0xFF804020, 0.3f));
+    }
+
+    @Test
+    public void colorTransitionReachesFocusedColor() {
+        RecordingController controller = new RecordingController();
+        controller.setFocusedColor(FOCUSED_COLOR);
+        controller.setFocused(true);
+        long start = FloatLabelTicker.currentTimeMillis();
+        controller.onFrame(start + controller.getAnimationDuration() / 2);
+        int midway = controller.mColor;
+        assertTrue(midway != FOCUSED_COLOR
+                && midway != FloatLabelController.HINT_DEFAULT_COLOR_DISABLED);
+        controller.onFrame(start + controller.getAnimationDuration());
+        assertEquals(FOCUSED_COLOR, controller.mColor);
+    }
+
+    @Test
+    public void animationFramesAllocateNothing() {
+        final RecordingController controller = new RecordingController();
+        controller.setFocusedColor(FOCUSED_COLOR);
+        final long start = FloatLabelTicker.currentTimeMillis();
+        final long duration = controller.getAnimationDuration();
+        Runnable frames = new Runnable() {
+
+            @Override
+            public void run() {
+                for (long time = start; time <= start + duration + 16; time += 16) {
+                    controller.onFrame(time);
+                }
+            }
+        };
+
+        controller.setFocused(true);
+        controller.setContentPresent(true);
+        frames.run();
+        controller.setFocused(false);
+        controller.setContentPresent(false);
+        frames.run();
+        assertEquals(0f, controller.mProgress, 0f);
+
+        controller.setFocused(true);
+        controller.setContentPresent(true);
+        assertEquals(0, Allocations.measure(frames));
+        assertEquals(FOCUSED_COLOR, controller.mColor);
+        assertEquals(1f, controller.mProgress, 0f);
+    }
+
+    @Test
+    public void labelViewFramesAllocateNothing() {
+        final TextView label = new TextView(RuntimeEnvironment.application);
+        // Without a host the label animates even though it is not attached to a window.
+        final ViewLabelController controller = new ViewLabelController(label) {
+
+            @Override
+            protected View getHostView() {
+                return null;
+            }
+        };
+        controller.setFocusedColor(FOCUSED_COLOR);
+        final long start = FloatLabelTicker.currentTimeMillis();
+        final long duration = controller.getAnimationDuration();
+        Runnable frames = new Runnable() {
+
+            @Override
+            public void run() {
+                for (long time = start; time <= start + duration + 16; time += 16) {
+                    controller.onFrame(time);
+                }
+            }
+        };
+
+        controller.setFocused(true);
+        controller.setContentPresent(true);
+        frames.run();
+        controller.setFocused(false);
+        controller.setContentPresent(false);
+        frames.run();
+        assertEquals(0f, label.getAlpha(), 0f);
+
+        controller.setFocused(true);
+        controller.setContentPresent(true);
+        assertEquals(0, Allocations.measure(frames));
+        assertEquals(FOCUSED_COLOR, label.getCurrentTextColor());
+        assertEquals(1f, label.getAlpha(), 0f);
+        assertEquals(0f, label.getTranslationY(), 0f);
+    }
+
+    @Test
+    public void labelViewKeepsOneColorStateList() {
+        TextView label = new TextView(RuntimeEnvironment.application);
+        ViewLabelController controller = new ViewLabelController(label);
+        ColorStateList colors = label.getTextColors();
+        controller.setFocusedColor(FOCUSED_COLOR);
+        controller.setFocused(true);
+        controller.jumpToCurrentState();
+        assertSame(colors, label.getTextColors());
+        assertEquals(FOCUSED_COLOR, label.getCurrentTextColor());
+    }
+
+    @Test
+    public void labelHostIsTheFieldNotTheHiddenLabel() {
+        FloatLabelStyle style = new FloatLabelStyle.Builder().setHint("Name").build();
+        FloatLabelTextView text = new FloatLabelTextView(RuntimeEnvironment.application, style);
+        FloatLabelAutoCompleteTextView autoComplete =
+                new FloatLabelAutoCompleteTextView(RuntimeEnvironment.application, style);
+        FloatLabelSpinnerView spinner =
+                new FloatLabelSpinnerView(RuntimeEnvironment.application, style);
+        assertSame(text, text.getLabelController().getHostView());
+        assertSame(autoComplete, autoComplete.getLabelController().getHostView());
+        assertSame(spinner, spinner.getLabelController().getHostView());
+
+        ViewLabelController controller = (ViewLabelController) text.getLabelController();
+        controller.getLabelView();
+        assertSame(text, controller.getHostView());
+    }
+
+    @Test
+    public void disabledMotionJumpsToEndState() {
+        RecordingController controller = new RecordingController();
+        controller.setContentPresent(true);
+        assertEquals(FloatLabelController.STATE_ENTERING, controller.getLabelState());
+
+        FloatLabelMotionPolicy.setAnimationsEnabled(false);
+        controller.setContentPresent(false);
+        assertEquals(FloatLabelController.STATE_HIDDEN, controller.getLabelState());
+        controller.setContentPresent(true);
+        assertEquals(FloatLabelController.STATE_SHOWN, controller.getLabelState());
+        assertEquals(1f, controller.mProgress, 0f);
+    }
+
+    @Test
+    public void detachedFieldJumpsToEndState() {
+        FloatLabelTextView view = new FloatLabelTextView(RuntimeEnvironment.application,
+                new FloatLabelStyle.Builder().setHint("Name").build());
+        view.setText("Ada");
+        assertEquals(FloatLabelController.STATE_SHOWN,
+                view.getLabelController().getLabelState());
+    }
+
+    private static class RecordingController extends FloatLabelController {
+        float mProgress;
+        int mColor;
+
+        @Override
+        protected void onLabelProgressChanged(float progress) {
+            mProgress = progress;
+        }
+
+        @Override
+        protected void onLabelColorChanged(int color) {
+            mColor = color;
+        }
+
+        @Override
+        public void setLabelText(CharSequence text) {
+        }
+
+        @Override
+        public void setLabelTextSize(int unit, float size) {
+        }
+
+        @Override
+        public void setLabelTypeface(Typeface tf) {
+        }
+    }
+}
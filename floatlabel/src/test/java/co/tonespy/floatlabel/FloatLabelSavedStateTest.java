@@ -0,0 +1,142 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatLabelSavedStateTest {
+
+    private static final int FIELDS = 200;
+    private static final String KEY = "form";
+
+    private Context mContext;
+    private OptionDataSource mOptions;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mOptions = new IdOptionDataSource(new long[] { -1, 101, 102, 103 },
+                PackedStringStore.of("Select a city", "Lagos", "Abuja", "Kano"));
+    }
+
+    @Test
+    public void twoHundredFieldFormRoundTrips() {
+        LinearLayout form = buildForm();
+        for (int i = 0; i < FIELDS; i++) {
+            View field = form.getChildAt(i);
+            if (field instanceof FloatLabelTextView) {
+                FloatLabelTextView view = (FloatLabelTextView) field;
+                if (i % 2 == 0) {
+                    view.setText("Field " + i);
+                    textOf(view).setSelection(1, 3);
+                }
+            } else if (field instanceof FloatLabelAutoCompleteTextView) {
+                ((FloatLabelAutoCompleteTextView) field).setText(i % 2 == 0 ? "City " + i : "");
+            } else {
+                ((FloatLabelSpinnerView) field).setSelectedId(100 + i % 4);
+            }
+        }
+
+        SparseArray<Parcelable> saved = new SparseArray<Parcelable>();
+        form.saveHierarchyState(saved);
+        assertEquals(FIELDS, saved.size());
+
+        Bundle bundle = new Bundle();
+        bundle.putSparseParcelableArray(KEY, saved);
+        Parcel parcel = Parcel.obtain();
+        parcel.writeBundle(bundle);
+        int size = parcel.dataSize();
+        parcel.setDataPosition(0);
+        Bundle read = parcel.readBundle(getClass().getClassLoader());
+        parcel.recycle();
+        assertTrue("Saved state takes " + size + " bytes", size < FIELDS * 512);
+
+        LinearLayout restored = buildForm();
+        restored.restoreHierarchyState(read.<Parcelable>getSparseParcelableArray(KEY));
+        for (int i = 0; i < FIELDS; i++) {
+            View field = restored.getChildAt(i);
+            if (field instanceof FloatLabelTextView) {
+                FloatLabelTextView view = (FloatLabelTextView) field;
+                String text = i % 2 == 0 ? "Field " + i : "";
+                assertEquals(text, view.getText().toString());
+                if (i % 2 == 0) {
+                    assertEquals(1, textOf(view).getSelectionStart());
+                    assertEquals(3, textOf(view).getSelectionEnd());
+                }
+                assertLabel(i % 2 == 0, view.getLabelController());
+            } else if (field instanceof FloatLabelAutoCompleteTextView) {
+                FloatLabelAutoCompleteTextView view = (FloatLabelAutoCompleteTextView) field;
+                assertEquals(i % 2 == 0 ? "City " + i : "", view.getText().toString());
+                assertLabel(i % 2 == 0, view.getLabelController());
+            } else {
+                FloatLabelSpinnerView view = (FloatLabelSpinnerView) field;
+                long id = 100 + i % 4;
+                boolean chosen = id != 100;
+                assertEquals(chosen ? id : IdOptionDataSource.NO_ID, view.getSelectedId());
+                assertLabel(chosen, view.getLabelController());
+            }
+        }
+    }
+
+    @Test
+    public void spinnerPositionWaitsForItsOptions() {
+        FloatLabelSpinnerView spinner = new FloatLabelSpinnerView(mContext);
+        spinner.setId(1);
+        spinner.setOptionDataSource(mOptions);
+        spinner.setSelectedId(103);
+        SparseArray<Parcelable> saved = new SparseArray<Parcelable>();
+        spinner.saveHierarchyState(saved);
+
+        FloatLabelSpinnerView restored = new FloatLabelSpinnerView(mContext);
+        restored.setId(1);
+        restored.restoreHierarchyState(saved);
+        assertLabel(true, restored.getLabelController());
+        restored.setOptionDataSource(mOptions);
+        assertEquals(103, restored.getSelectedId());
+    }
+
+    private LinearLayout buildForm() {
+        LinearLayout form = new LinearLayout(mContext);
+        for (int i = 0; i < FIELDS; i++) {
+            View field;
+            if (i % 3 == 0) {
+                field = new FloatLabelTextView(mContext);
+            } else if (i % 3 == 1) {
+                field = new FloatLabelAutoCompleteTextView(mContext);
+            } else {
+                FloatLabelSpinnerView spinner = new FloatLabelSpinnerView(mContext);
+                spinner.setOptionDataSource(mOptions);
+                field = spinner;
+            }
+            field.setId(i + 1);
+            form.addView(field);
+        }
+        return form;
+    }
+
+    private static EditText textOf(FloatLabelTextView view) {
+        return (EditText) view.findViewById(R.id.textview_main);
+    }
+
+    private static void assertLabel(boolean shown, FloatLabelController controller) {
+        assertEquals(shown ? FloatLabelController.STATE_SHOWN : FloatLabelController.STATE_HIDDEN,
+                controller.getLabelState());
+    }
+}
@@ -0,0 +1,50 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatLabelSpinnerViewTest {
+
+    private FloatLabelSpinnerView mSpinner;
+
+    @Before
+    public void setUp() {
+        mSpinner = new FloatLabelSpinnerView(RuntimeEnvironment.application,
+                new FloatLabelStyle.Builder().setHint("City").build());
+        mSpinner.setOptionDataSource(new IdOptionDataSource(new long[] { -1, 101, 102, 103 },
+                PackedStringStore.of("Select a city", "Lagos", "Abuja", "Kano")));
+    }
+
+    @Test
+    public void selectsAndReportsOptionsById() {
+        assertTrue(mSpinner.setSelectedId(102));
+        assertEquals(102, mSpinner.getSelectedId());
+
+        assertFalse(mSpinner.setSelectedId(999));
+        assertEquals(IdOptionDataSource.NO_ID, mSpinner.getSelectedId());
+    }
+
+    @Test
+    public void placeholderReportsNoId() {
+        mSpinner.setSelectedId(101);
+        mSpinner.setSelectedId(-1);
+        assertEquals(IdOptionDataSource.NO_ID, mSpinner.getSelectedId());
+    }
+
+    @Test
+    public void everyRowIsAnOptionWithoutPlaceholder() {
+        mSpinner.setPlaceholderPosition(FloatLabelSpinnerView.NO_PLACEHOLDER);
+        assertTrue(mSpinner.setSelectedId(-1));
+        assertEquals(-1, mSpinner.getSelectedId());
+    }
+}
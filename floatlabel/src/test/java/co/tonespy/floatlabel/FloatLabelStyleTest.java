@@ -0,0 +1,56 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+import android.text.InputType;
+import android.widget.EditText;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatLabelStyleTest {
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        FloatLabelStyle.clearCache();
+        mContext = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void builderInternsEqualSpecs() {
+        FloatLabelStyle first = new FloatLabelStyle.Builder().setHint("Name").build();
+        FloatLabelStyle second = new FloatLabelStyle.Builder().setHint("Name").build();
+        assertSame(first, second);
+        assertNotSame(first, first.withHint("Email"));
+        assertSame(first, first.withHint("Email").withHint("Name"));
+    }
+
+    @Test
+    public void explicitInputTypeReachesEditText() {
+        int inputType = InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_EMAIL_ADDRESS;
+        FloatLabelStyle style = new FloatLabelStyle.Builder().setInputType(inputType).build();
+        assertEquals(inputType, new FloatLabelEditText(mContext, style).getInputType());
+        assertEquals(inputType,
+                new FloatLabelAutoCompleteEditText(mContext, style).getInputType());
+    }
+
+    @Test
+    public void explicitInputTypeReachesTextView() {
+        int inputType = InputType.TYPE_CLASS_PHONE;
+        FloatLabelStyle style = new FloatLabelStyle.Builder().setInputType(inputType).build();
+        FloatLabelTextView view = new FloatLabelTextView(mContext, style);
+        EditText editText = (EditText) view.findViewById(R.id.textview_main);
+        assertEquals(inputType, editText.getInputType());
+    }
+}
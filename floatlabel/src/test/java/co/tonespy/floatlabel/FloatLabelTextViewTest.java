@@ -0,0 +1,109 @@
+package co.tonespy.floatlabel;
+
+import android.text.Editable;
+import android.text.Selection;
+import android.text.TextWatcher;
+import android.widget.EditText;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatLabelTextViewTest {
+
+    private FloatLabelTextView mView;
+    private EditText mEditText;
+
+    @Before
+    public void setUp() {
+        mView = new FloatLabelTextView(RuntimeEnvironment.application,
+                new FloatLabelStyle.Builder().setHint("Phone").build());
+        mEditText = (EditText) mView.findViewById(R.id.textview_main);
+        mView.setInputMask(new InputMask("(###) ###-####"));
+    }
+
+    @Test
+    public void existingTextIsFormattedWhenTheMaskIsSet() {
+        FloatLabelTextView view = new FloatLabelTextView(RuntimeEnvironment.application);
+        view.setText("5551234567");
+        view.setInputMask(new InputMask("(###) ###-####"));
+        assertEquals("(555) 123-4567", view.getText().toString());
+    }
+
+    @Test
+    public void cursorFollowsInsertedLiterals() {
+        type("5551");
+        assertEquals("(555) 1", mEditText.getText().toString());
+        assertEquals(7, mEditText.getSelectionStart());
+    }
+
+    @Test
+    public void typingInTheMiddleKeepsTheCursorAfterTheKey() {
+        type("555123");
+        mEditText.setSelection(2);
+        type("9");
+        assertEquals("(595) 512-3", mEditText.getText().toString());
+        assertEquals(3, mEditText.getSelectionStart());
+    }
+
+    @Test
+    public void backspaceOverAnInnerLiteralMovesOn() {
+        type("555123");
+        mEditText.setSelection(5);
+        backspace();
+        assertEquals("(551) 23", mEditText.getText().toString());
+        assertEquals(3, mEditText.getSelectionStart());
+        backspace();
+        assertEquals("(512) 3", mEditText.getText().toString());
+        assertEquals(2, mEditText.getSelectionStart());
+    }
+
+    @Test
+    public void rejectedCharactersNeverMoveTheLabel() {
+        final boolean[] labelMoved = new boolean[1];
+        mView.addTextChangedListener(new TextWatcher() {
+
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+                // Runs inside the mask's own edits, after the label saw the raw text.
+                labelMoved[0] |= mView.getLabelController().getLabelState()
+                        != FloatLabelController.STATE_HIDDEN;
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                labelMoved[0] |= mView.getLabelController().getLabelState()
+                        != FloatLabelController.STATE_HIDDEN;
+            }
+        });
+        type("x");
+        assertEquals("", mEditText.getText().toString());
+        assertFalse(labelMoved[0]);
+    }
+
+    private void type(CharSequence keys) {
+        Editable text = mEditText.getText();
+        for (int i = 0; i < keys.length(); i++) {
+            int cursor = Selection.getSelectionEnd(text);
+            text.insert(cursor, keys, i, i + 1);
+        }
+    }
+
+    private void backspace() {
+        Editable text = mEditText.getText();
+        int cursor = Selection.getSelectionEnd(text);
+        text.delete(cursor - 1, cursor);
+    }
+}
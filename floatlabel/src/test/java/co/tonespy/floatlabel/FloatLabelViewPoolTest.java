@@ -0,0 +1,163 @@
+package co.tonespy.floatlabel;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.os.Looper;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ActivityController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FloatLabelViewPoolTest {
+
+    private final List<Runnable> mQueued = new ArrayList<Runnable>();
+    private FloatLabelStyle mStyle;
+    private FloatLabelViewPool mPool;
+
+    @Before
+    public void setUp() {
+        FloatLabelExecutors.setBackgroundExecutor(new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                mQueued.add(command);
+            }
+        });
+        mStyle = new FloatLabelStyle.Builder().setHint("Name").build();
+        mPool = new FloatLabelViewPool(RuntimeEnvironment.application, 4);
+    }
+
+    @After
+    public void tearDown() {
+        mPool.release();
+        FloatLabelExecutors.setBackgroundExecutor(null);
+    }
+
+    @Test
+    public void prewarmedWidgetsAreHandedOut() {
+        mPool.prewarm(FloatLabelViewPool.EDIT_TEXT, mStyle, 3);
+        assertEquals(3, mQueued.size());
+        runQueued();
+        assertEquals(3, mPool.getIdleCount(FloatLabelViewPool.EDIT_TEXT, mStyle));
+
+        FloatLabelEditText first = mPool.obtain(FloatLabelViewPool.EDIT_TEXT, mStyle);
+        FloatLabelEditText second = mPool.obtain(FloatLabelViewPool.EDIT_TEXT, mStyle);
+        assertNotSame(first, second);
+        assertEquals(1, mPool.getIdleCount(FloatLabelViewPool.EDIT_TEXT, mStyle));
+
+        mPool.prewarm(FloatLabelViewPool.EDIT_TEXT, mStyle, 3);
+        assertEquals(2, mQueued.size());
+    }
+
+    @Test
+    public void prewarmIsBoundedPerKind() {
+        FloatLabelStyle other = mStyle.withHint("Email");
+        mPool.prewarm(FloatLabelViewPool.EDIT_TEXT, mStyle, 10);
+        mPool.prewarm(FloatLabelViewPool.EDIT_TEXT, mStyle, 10);
+        mPool.prewarm(FloatLabelViewPool.TEXT_VIEW, mStyle, 1);
+        mPool.prewarm(FloatLabelViewPool.EDIT_TEXT, other, 2);
+        runQueued();
+        assertEquals(4, mPool.getIdleCount(FloatLabelViewPool.EDIT_TEXT, mStyle));
+        assertEquals(1, mPool.getIdleCount(FloatLabelViewPool.TEXT_VIEW, mStyle));
+        assertEquals(2, mPool.getIdleCount(FloatLabelViewPool.EDIT_TEXT, other));
+    }
+
+    @Test
+    public void widgetsNeedingALooperAreBuiltOnTheUiThread() {
+        mPool.prewarm(FloatLabelViewPool.SPINNER_VIEW, mStyle, 2);
+        mPool.prewarm(FloatLabelViewPool.AUTO_COMPLETE_TEXT_VIEW, mStyle, 1);
+        mPool.prewarm(FloatLabelViewPool.AUTO_COMPLETE_EDIT_TEXT, mStyle, 1);
+        assertTrue(mQueued.isEmpty());
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(2, mPool.getIdleCount(FloatLabelViewPool.SPINNER_VIEW, mStyle));
+        assertEquals(1, mPool.getIdleCount(FloatLabelViewPool.AUTO_COMPLETE_TEXT_VIEW, mStyle));
+        assertEquals(1, mPool.getIdleCount(FloatLabelViewPool.AUTO_COMPLETE_EDIT_TEXT, mStyle));
+    }
+
+    @Test
+    public void failedBackgroundBuildsAreRetriedOnTheUiThread() throws InterruptedException {
+        FloatLabelViewPool.Factory<View> looperOnly = new FloatLabelViewPool.Factory<View>() {
+
+            @Override
+            public View create(Context context, FloatLabelStyle style) {
+                if (Looper.myLooper() == null) {
+                    throw new IllegalStateException("No Looper");
+                }
+                return new View(context);
+            }
+        };
+        // Keeps the worker's post from running on the worker itself.
+        Robolectric.getForegroundThreadScheduler().pause();
+        mPool.prewarm(looperOnly, mStyle, 2);
+        for (Runnable build : mQueued) {
+            Thread thread = new Thread(build);
+            thread.start();
+            thread.join();
+        }
+        mQueued.clear();
+        assertEquals(0, mPool.getIdleCount(looperOnly, mStyle));
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(2, mPool.getIdleCount(looperOnly, mStyle));
+    }
+
+    @Test
+    public void clearDiscardsWidgetsStillBeingBuilt() {
+        mPool.prewarm(FloatLabelViewPool.TEXT_VIEW, mStyle, 2);
+        mPool.clear();
+        runQueued();
+        assertEquals(0, mPool.getIdleCount(FloatLabelViewPool.TEXT_VIEW, mStyle));
+
+        mPool.prewarm(FloatLabelViewPool.TEXT_VIEW, mStyle, 2);
+        assertEquals(2, mQueued.size());
+    }
+
+    @Test
+    public void memoryPressureTrimsThePool() {
+        mPool.prewarm(FloatLabelViewPool.EDIT_TEXT, mStyle, 4);
+        runQueued();
+        mPool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(2, mPool.getIdleCount(FloatLabelViewPool.EDIT_TEXT, mStyle));
+        mPool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(0, mPool.getIdleCount(FloatLabelViewPool.EDIT_TEXT, mStyle));
+    }
+
+    @Test
+    public void activityPoolIsReleasedWhenTheActivityIsDestroyed() {
+        ActivityController<Activity> controller =
+                Robolectric.buildActivity(Activity.class).create();
+        FloatLabelViewPool pool = new FloatLabelViewPool(controller.get());
+        pool.prewarm(FloatLabelViewPool.TEXT_VIEW, mStyle, 2);
+        runQueued();
+        assertEquals(2, pool.getIdleCount(FloatLabelViewPool.TEXT_VIEW, mStyle));
+        controller.destroy();
+        assertEquals(0, pool.getIdleCount(FloatLabelViewPool.TEXT_VIEW, mStyle));
+    }
+
+    private void runQueued() {
+        for (Runnable build : mQueued) {
+            build.run();
+        }
+        mQueued.clear();
+        Robolectric.flushForegroundThreadScheduler();
+    }
+}
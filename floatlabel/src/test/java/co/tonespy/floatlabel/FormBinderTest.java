@@ -0,0 +1,155 @@
+package co.tonespy.floatlabel;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FormBinderTest {
+
+    private Context mContext;
+    private FormStore mStore;
+    private FormBinder mBinder;
+    private int mName;
+    private int mEmail;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mStore = new FormStore();
+        mName = mStore.addField("Name");
+        mEmail = mStore.addField("Email");
+        mBinder = new FormBinder(mStore);
+    }
+
+    @Test
+    public void bindingShowsTheFieldWithoutAnimating() {
+        mStore.setText(mName, "Ada");
+        FloatLabelEditText widget = new FloatLabelEditText(mContext);
+        mBinder.bind(widget, mName);
+
+        assertEquals("Ada", widget.getText().toString());
+        assertEquals("Name", widget.getHint().toString());
+        assertEquals(mName, mBinder.getBoundField(widget));
+        assertEquals(FloatLabelController.STATE_SHOWN,
+                widget.getLabelController().getLabelState());
+    }
+
+    @Test
+    public void editsAndStoreChangesFlowBothWays() {
+        FloatLabelEditText widget = new FloatLabelEditText(mContext);
+        mBinder.bind(widget, mName);
+
+        widget.setText("Grace");
+        assertEquals("Grace", mStore.getText(mName));
+        assertTrue(mStore.hasFlag(mName, FormStore.FLAG_DIRTY));
+
+        mStore.setText(mName, "Ada");
+        mStore.setError(mName, "Taken");
+        assertEquals("Ada", widget.getText().toString());
+        assertEquals("Taken", widget.getError().toString());
+    }
+
+    @Test
+    public void rebindingMovesTheWidgetToTheNewField() {
+        mStore.setText(mName, "Ada");
+        FloatLabelTextView widget = new FloatLabelTextView(mContext);
+        mBinder.bind(widget, mName);
+        mBinder.bind(widget, mEmail);
+        assertEquals("", widget.getText().toString());
+        assertEquals(FloatLabelController.STATE_HIDDEN,
+                widget.getLabelController().getLabelState());
+
+        widget.setText("ada@example.com");
+        assertEquals("Ada", mStore.getText(mName));
+        assertEquals("ada@example.com", mStore.getText(mEmail));
+    }
+
+    @Test
+    public void storeChangesReachOnlyTheWidgetsOfThatField() {
+        FloatLabelEditText first = new FloatLabelEditText(mContext);
+        FloatLabelEditText second = new FloatLabelEditText(mContext);
+        FloatLabelEditText third = new FloatLabelEditText(mContext);
+        mBinder.bind(first, mName);
+        mBinder.bind(second, mName);
+        mBinder.bind(third, mName);
+
+        mStore.setText(mName, "Ada");
+        assertEquals("Ada", first.getText().toString());
+        assertEquals("Ada", second.getText().toString());
+        assertEquals("Ada", third.getText().toString());
+
+        mBinder.bind(second, mEmail);
+        mBinder.unbind(third);
+        mStore.setText(mName, "Grace");
+        mStore.setText(mEmail, "grace@example.com");
+        assertEquals("Grace", first.getText().toString());
+        assertEquals("grace@example.com", second.getText().toString());
+        assertEquals("Ada", third.getText().toString());
+    }
+
+    @Test
+    public void unboundWidgetsNoLongerTouchTheStore() {
+        FloatLabelEditText widget = new FloatLabelEditText(mContext);
+        mBinder.bind(widget, mName);
+        mBinder.unbind(widget);
+        assertEquals(-1, mBinder.getBoundField(widget));
+
+        widget.setText("Grace");
+        assertEquals("", mStore.getText(mName));
+        assertFalse(mStore.hasFlag(mName, FormStore.FLAG_DIRTY));
+        mStore.setText(mName, "Ada");
+        assertEquals("Grace", widget.getText().toString());
+    }
+
+    @Test
+    public void spinnerFollowsTheSelectedId() {
+        int city = mStore.addField("City");
+        mStore.setSelectedId(city, 102);
+        FloatLabelSpinnerView spinner = new FloatLabelSpinnerView(mContext);
+        spinner.setOptionDataSource(new IdOptionDataSource(new long[] { -1, 101, 102 },
+                PackedStringStore.of("Select a city", "Lagos", "Abuja")));
+        mBinder.bind(spinner, city);
+        assertEquals(102, spinner.getSelectedId());
+
+        mStore.setSelectedId(city, 101);
+        assertEquals(101, spinner.getSelectedId());
+    }
+
+    @Test
+    public void unbindingLetsGoOfTheWidget() {
+        FloatLabelEditText widget = new FloatLabelEditText(mContext);
+        WeakReference<FloatLabelEditText> ref = new WeakReference<FloatLabelEditText>(widget);
+        mBinder.bind(widget, mName);
+        mBinder.unbind(widget);
+        widget = null;
+        for (int i = 0; i < 10 && ref.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    public void releaseStopsFollowingTheStore() {
+        FloatLabelEditText widget = new FloatLabelEditText(mContext);
+        mBinder.bind(widget, mName);
+        mBinder.release();
+        mStore.setText(mName, "Ada");
+        widget.setText("Grace");
+        assertEquals("Ada", mStore.getText(mName));
+        assertEquals(-1, mBinder.getBoundField(widget));
+    }
+}
@@ -0,0 +1,86 @@
+package co.tonespy.floatlabel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FormBuilderTest {
+
+    private final List<Runnable> mQueued = new ArrayList<Runnable>();
+    private FloatLabelViewPool mPool;
+
+    @Before
+    public void setUp() {
+        FloatLabelExecutors.setBackgroundExecutor(new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                mQueued.add(command);
+            }
+        });
+        mPool = new FloatLabelViewPool(RuntimeEnvironment.application, 4);
+    }
+
+    @After
+    public void tearDown() {
+        mPool.release();
+        FloatLabelExecutors.setBackgroundExecutor(null);
+    }
+
+    @Test
+    public void fieldsWithDifferentHintsShareOneStyle() {
+        FloatLabelStyle style = new FloatLabelStyle.Builder().setHint("Ignored").build();
+        FormSchema schema = new FormSchema.Builder()
+                .addTextField("first", "First name", style)
+                .addTextField("last", "Last name", style)
+                .build();
+        assertSame(schema.getStyle(0), schema.getStyle(1));
+        assertNull(schema.getStyle(0).getHint());
+        assertEquals("Last name", schema.getHint(1));
+    }
+
+    @Test
+    public void prewarmedWidgetsAreUsedForEveryField() {
+        FloatLabelStyle style = new FloatLabelStyle.Builder().build();
+        FormSchema schema = new FormSchema.Builder()
+                .addTextField("first", "First name", style)
+                .addTextField("last", "Last name", style)
+                .addTextField("email", "Email", style)
+                .build();
+        mPool.prewarm(FloatLabelViewPool.TEXT_VIEW, schema.getStyle(0), 3);
+        runQueued();
+        assertEquals(3, mPool.getIdleCount(FloatLabelViewPool.TEXT_VIEW, schema.getStyle(0)));
+
+        FloatLabelForm form = new FormBuilder(RuntimeEnvironment.application)
+                .setViewPool(mPool)
+                .build(schema);
+
+        assertEquals(0, mPool.getIdleCount(FloatLabelViewPool.TEXT_VIEW, schema.getStyle(0)));
+        FloatLabelTextView email = (FloatLabelTextView) form.getFieldView("email");
+        ViewLabelController label = (ViewLabelController) email.getLabelController();
+        assertEquals("Email", label.getLabelView().getText().toString());
+    }
+
+    private void runQueued() {
+        for (Runnable build : mQueued) {
+            build.run();
+        }
+        mQueued.clear();
+        Robolectric.flushForegroundThreadScheduler();
+    }
+}
@@ -0,0 +1,109 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FormStoreTest {
+
+    private FormStore mStore;
+    private final List<Integer> mChanged = new ArrayList<Integer>();
+
+    @Before
+    public void setUp() {
+        mStore = new FormStore(1);
+        mStore.addOnFieldChangeListener(new FormStore.OnFieldChangeListener() {
+
+            @Override
+            public void onFieldChanged(FormStore store, int field) {
+                mChanged.add(field);
+            }
+        });
+    }
+
+    @Test
+    public void fieldsGrowPastTheInitialCapacity() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, mStore.addField("Field " + i));
+        }
+        assertEquals(100, mStore.getFieldCount());
+        assertEquals("Field 99", mStore.getHint(99));
+        assertEquals("", mStore.getText(99));
+        assertEquals(IdOptionDataSource.NO_ID, mStore.getSelectedId(99));
+        assertNull(mStore.getError(99));
+    }
+
+    @Test
+    public void textDrivesTheLabelAndVersion() {
+        int field = mStore.addField("Name");
+        mStore.setText(field, "Ada");
+        assertTrue(mStore.isLabelShown(field));
+        assertEquals(1, mStore.getValueVersion(field));
+
+        mStore.setText(field, new StringBuilder("Ada"));
+        assertEquals(1, mStore.getValueVersion(field));
+        assertEquals(1, mChanged.size());
+
+        mStore.setText(field, "");
+        assertFalse(mStore.isLabelShown(field));
+        assertEquals(2, mStore.getValueVersion(field));
+        assertEquals(2, mChanged.size());
+    }
+
+    @Test
+    public void selectedIdDrivesTheLabel() {
+        int field = mStore.addField("City");
+        mStore.setSelectedId(field, 102);
+        assertTrue(mStore.isLabelShown(field));
+        mStore.setSelectedId(field, IdOptionDataSource.NO_ID);
+        assertFalse(mStore.isLabelShown(field));
+        assertEquals(2, mStore.getValueVersion(field));
+    }
+
+    @Test
+    public void errorsAndFlagsNotifyOnlyOnChange() {
+        int field = mStore.addField("Email");
+        mStore.setError(field, "Required");
+        mStore.setError(field, "Required");
+        mStore.setFlag(field, FormStore.FLAG_DIRTY);
+        mStore.setFlag(field, FormStore.FLAG_DIRTY);
+        assertTrue(mStore.hasFlag(field, FormStore.FLAG_DIRTY));
+        mStore.clearFlag(field, FormStore.FLAG_DIRTY);
+        mStore.clearFlag(field, FormStore.FLAG_DIRTY);
+        assertFalse(mStore.hasFlag(field, FormStore.FLAG_DIRTY));
+        assertEquals(3, mChanged.size());
+        assertEquals(0, mStore.getValueVersion(field));
+    }
+
+    @Test
+    public void snapshotIsACopy() {
+        int name = mStore.addField("Name");
+        int city = mStore.addField("City");
+        mStore.setText(name, "Ada");
+        mStore.setSelectedId(city, 101);
+        FormSnapshot snapshot = mStore.snapshot();
+        mStore.setText(name, "Grace");
+
+        assertEquals(2, snapshot.getFieldCount());
+        assertEquals("Ada", snapshot.getText(name));
+        assertEquals(101, snapshot.getSelectedId(city));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void unknownFieldsAreRejected() {
+        mStore.addField("Name");
+        mStore.getText(1);
+    }
+}
@@ -0,0 +1,198 @@
+package co.tonespy.floatlabel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FormValidatorTest {
+
+    /** Longer than a frame on either frame source. */
+    private static final long FRAME = 50;
+
+    private final List<Runnable> mQueued = new ArrayList<Runnable>();
+    private final List<Integer> mValidated = new ArrayList<Integer>();
+    private Scheduler mScheduler;
+    private FormStore mStore;
+    private FormValidator mValidator;
+
+    private final FieldRule mEcho = new FieldRule() {
+
+        @Override
+        public CharSequence validate(FormSnapshot form, int field) {
+            String text = form.getText(field);
+            return text.length() > 0 ? text + "!" : null;
+        }
+    };
+
+    private final FormValidator.OnValidatedListener mListener =
+            new FormValidator.OnValidatedListener() {
+
+        @Override
+        public void onValidated(FormValidator validator, int errorCount) {
+            mValidated.add(errorCount);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mScheduler = Robolectric.getForegroundThreadScheduler();
+        mScheduler.pause();
+        mStore = new FormStore();
+        mValidator = new FormValidator(mStore);
+        // Rules run when the test says so, on the test thread.
+        mValidator.setExecutor(new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                mQueued.add(command);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mValidator.release();
+        mScheduler.unPause();
+    }
+
+    @Test
+    public void fieldIsValidatedOnceItsValueSettles() {
+        int name = mStore.addField("Name");
+        mValidator.addRule(name, FieldRules.required("Required")).setDebounce(name, 300);
+
+        mStore.setText(name, "A");
+        mScheduler.advanceBy(200);
+        mStore.setText(name, "");
+        mScheduler.advanceBy(200);
+        assertEquals(0, mQueued.size());
+
+        mScheduler.advanceBy(150);
+        assertEquals(1, mQueued.size());
+        runQueued();
+        mScheduler.advanceBy(FRAME);
+        assertEquals("Required", mStore.getError(name));
+    }
+
+    @Test
+    public void olderResultsAreDropped() {
+        int name = mStore.addField("Name");
+        mValidator.addRule(name, mEcho).setDebounce(name, 0);
+
+        mStore.setText(name, "A");
+        mScheduler.advanceBy(0);
+        mStore.setText(name, "Ab");
+        mScheduler.advanceBy(0);
+        assertEquals(2, mQueued.size());
+
+        // The newer validation finishes first; the older one must not overwrite it.
+        mQueued.get(1).run();
+        mQueued.get(0).run();
+        mQueued.clear();
+        mScheduler.advanceBy(FRAME);
+        assertEquals("Ab!", mStore.getError(name));
+    }
+
+    @Test
+    public void dependentsRevalidateOnlyOnceEditedOrFailing() {
+        int password = mStore.addField("Password");
+        int confirm = mStore.addField("Confirm");
+        int repeat = mStore.addField("Repeat");
+        mValidator.addRule(confirm, FieldRules.sameAs(password, "Mismatch"), password)
+                .addRule(repeat, FieldRules.sameAs(confirm, "Mismatch"), confirm)
+                .setDebounce(confirm, 0)
+                .setDebounce(repeat, 0);
+
+        // Neither dependent has been edited or shows an error yet.
+        mStore.setText(password, "secret");
+        mScheduler.advanceBy(0);
+        assertEquals(0, mQueued.size());
+
+        mStore.setFlag(confirm, FormStore.FLAG_DIRTY);
+        mStore.setText(password, "secret2");
+        mScheduler.advanceBy(0);
+        assertEquals(1, mQueued.size());
+        mQueued.clear();
+
+        // repeat only depends on password through confirm.
+        mStore.setError(repeat, "Mismatch");
+        mStore.setText(password, "secret3");
+        mScheduler.advanceBy(0);
+        assertEquals(2, mQueued.size());
+    }
+
+    @Test
+    public void resultsAreAppliedTogetherOnTheNextFrame() {
+        int first = mStore.addField("First");
+        int second = mStore.addField("Second");
+        int third = mStore.addField("Third");
+        mValidator.addRule(first, FieldRules.required("Required"))
+                .addRule(second, FieldRules.required("Required"))
+                .addRule(third, FieldRules.required("Required"));
+
+        mValidator.validateAll(mListener);
+        runQueued();
+        assertNull(mStore.getError(first));
+        assertNull(mStore.getError(third));
+        assertEquals(0, mValidated.size());
+
+        mScheduler.advanceBy(FRAME);
+        assertEquals("Required", mStore.getError(first));
+        assertEquals("Required", mStore.getError(second));
+        assertEquals("Required", mStore.getError(third));
+        assertEquals(1, mValidated.size());
+        assertEquals(3, (int) mValidated.get(0));
+    }
+
+    @Test
+    public void errorCountLeavesOutStaleResults() {
+        int first = mStore.addField("First");
+        int second = mStore.addField("Second");
+        mValidator.addRule(first, FieldRules.required("Required"))
+                .addRule(second, FieldRules.required("Required"));
+
+        mValidator.validateAll(mListener);
+        // Supersedes the run's result for the first field before it is applied.
+        mStore.setText(first, "Ada");
+        assertEquals(1, mQueued.size());
+        mQueued.remove(0).run();
+        mScheduler.advanceBy(FRAME);
+
+        assertNull(mStore.getError(first));
+        assertEquals("Required", mStore.getError(second));
+        assertEquals(1, (int) mValidated.get(0));
+    }
+
+    @Test
+    public void releaseSkipsTheListenerOfARunInFlight() {
+        int name = mStore.addField("Name");
+        mValidator.addRule(name, FieldRules.required("Required"));
+
+        mValidator.validateAll(mListener);
+        mValidator.release();
+        runQueued();
+        mScheduler.advanceBy(FRAME);
+
+        assertEquals(0, mValidated.size());
+        assertNull(mStore.getError(name));
+    }
+
+    private void runQueued() {
+        while (!mQueued.isEmpty()) {
+            mQueued.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzySuggestionSourceTest {
+
+    private static final List<String> CITIES = Arrays.asList("Newark", "New York",
+            "Yonkers", "Okaka", "Kano", "Kaduna", "Lagos", "Lafia", "Lokoja", "S\u00e3o Paulo");
+
+    @Test
+    public void subsequenceFindsAbbreviations() {
+        List<String> out = query(new FuzzySuggestionSource(CITIES), "nwyrk", 5);
+        assertEquals("New York", out.get(0));
+    }
+
+    @Test
+    public void wordStartsRankAboveInnerMatches() {
+        List<String> out = query(new FuzzySuggestionSource(CITIES), "ka", 3);
+        assertEquals(Arrays.asList("Kano", "Kaduna", "Okaka"), out);
+    }
+
+    @Test
+    public void accentsAndCaseAreIgnored() {
+        assertEquals("S\u00e3o Paulo", query(new FuzzySuggestionSource(CITIES), "SAO P", 1).get(0));
+    }
+
+    @Test
+    public void longQueriesTolerateOneTypo() {
+        FuzzySuggestionSource source = new FuzzySuggestionSource(CITIES);
+        assertEquals("Lagos", query(source, "lagxs", 1).get(0));
+        assertTrue(query(source, "lgx", 10).isEmpty());
+
+        source.setMaxTypos(0);
+        assertTrue(query(source, "lagxs", 10).isEmpty());
+    }
+
+    @Test
+    public void topKMatchesTheFullRanking() {
+        List<String> values = new ArrayList<String>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int j = 0, length = 4 + random.nextInt(12); j < length; j++) {
+                boolean space = j > 0 && random.nextInt(6) == 0;
+                value.append(space ? ' ' : (char) ('a' + random.nextInt(8)));
+            }
+            values.add(value.toString());
+        }
+        FuzzySuggestionSource source = new FuzzySuggestionSource(values);
+        for (String query : new String[] { "ab", "cafe", "hgfe", "bad c" }) {
+            List<String> full = query(source, query, values.size());
+            List<String> top = query(source, query, 10);
+            assertEquals(query, full.subList(0, Math.min(10, full.size())), top);
+        }
+    }
+
+    @Test
+    public void typoInTheFirstCharacterDoesNotPruneAStartMatch() {
+        // With "x" missing, "---" matches from its first character and outscores the
+        // value ahead of it, which must not cut it off early.
+        FuzzySuggestionSource source = new FuzzySuggestionSource(
+                Arrays.asList("xa--x-", "---"));
+        List<String> full = query(source, "x---", 2);
+        assertEquals("---", full.get(0));
+        assertEquals(full.subList(0, 1), query(source, "x---", 1));
+    }
+
+    @Test
+    public void prunedResultsMatchAnExhaustiveRankingWithTypos() {
+        // Small random sets over few characters, so scores often tie with the K-th best.
+        char[] alphabet = { 'a', 'x', '-', ' ' };
+        String[] queries = { "x---", "x- -", "za-b", "qab-" };
+        Random random = new Random(8);
+        for (int trial = 0; trial < 5000; trial++) {
+            List<String> values = new ArrayList<String>();
+            for (int i = 0, count = 2 + random.nextInt(4); i < count; i++) {
+                StringBuilder value = new StringBuilder();
+                for (int j = 0, length = 1 + random.nextInt(6); j < length; j++) {
+                    value.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+                values.add(value.toString());
+            }
+            FuzzySuggestionSource source = new FuzzySuggestionSource(values);
+            for (String query : queries) {
+                // A limit of the whole set never fills the heap, so nothing is pruned.
+                List<String> full = query(source, query, values.size());
+                for (int limit = 1; limit < values.size(); limit++) {
+                    assertEquals(values + " " + query,
+                            full.subList(0, Math.min(limit, full.size())),
+                            query(source, query, limit));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void emptyQueriesReturnNothing() {
+        FuzzySuggestionSource source = new FuzzySuggestionSource(CITIES);
+        assertTrue(query(source, "", 10).isEmpty());
+        assertTrue(query(source, "ka", 0).isEmpty());
+    }
+
+    private static List<String> query(FuzzySuggestionSource source, String query, int limit) {
+        List<String> out = new ArrayList<String>();
+        source.query(query, limit, out);
+        return out;
+    }
+}
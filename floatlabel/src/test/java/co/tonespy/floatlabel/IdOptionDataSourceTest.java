@@ -0,0 +1,72 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IdOptionDataSourceTest {
+
+    @Test
+    public void idsAndPositionsMapBothWays() {
+        IdOptionDataSource source = new IdOptionDataSource(new long[] { 0, 17, -4, 99 },
+                PackedStringStore.of("Select", "Lagos", "Abuja", "Kano"));
+        assertEquals(4, source.getCount());
+        assertEquals(-4, source.getId(2));
+        assertEquals(2, source.getPosition(-4));
+        assertEquals(3, source.getPosition(99));
+        assertEquals(-1, source.getPosition(18));
+        assertEquals(IdOptionDataSource.NO_ID, source.getId(4));
+        assertEquals(IdOptionDataSource.NO_ID, source.getId(-1));
+
+        List<String> labels = new ArrayList<String>();
+        source.loadOptions(1, 2, labels);
+        assertEquals("Lagos", labels.get(0));
+        assertEquals("Abuja", labels.get(1));
+    }
+
+    @Test
+    public void firstPositionOfARepeatedIdWins() {
+        IdOptionDataSource source = new IdOptionDataSource(new long[] { 5, 6, 5 },
+                PackedStringStore.of("a", "b", "c"));
+        assertEquals(0, source.getPosition(5));
+        assertEquals(5, source.getId(2));
+    }
+
+    @Test
+    public void lookupHandlesCollidingAndExtremeIds() {
+        int count = 10000;
+        long[] ids = new long[count];
+        PackedStringStore.Builder labels = new PackedStringStore.Builder(count);
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            // Multiples of a large power of two stress the hash's low bits.
+            ids[i] = i % 2 == 0 ? random.nextLong() : (long) i << 40;
+            labels.add("option " + i);
+        }
+        ids[1] = Long.MAX_VALUE;
+        ids[3] = Long.MIN_VALUE + 1;
+        IdOptionDataSource source = new IdOptionDataSource(ids, labels.build());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, source.getPosition(ids[i]));
+        }
+        assertEquals(-1, source.getPosition(12345));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noIdIsNotAnOptionId() {
+        new IdOptionDataSource(new long[] { 1, IdOptionDataSource.NO_ID },
+                PackedStringStore.of("a", "b"));
+    }
+
+    @Test
+    public void emptySourceFindsNothing() {
+        IdOptionDataSource source = new IdOptionDataSource(new long[0],
+                PackedStringStore.of());
+        assertEquals(0, source.getCount());
+        assertEquals(-1, source.getPosition(0));
+    }
+}
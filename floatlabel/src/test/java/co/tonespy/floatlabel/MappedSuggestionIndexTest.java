@@ -0,0 +1,127 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MappedSuggestionIndexTest {
+
+    private static final List<String> CITIES = Arrays.asList("New York", "Newark", "York",
+            "Old Yorktown", "San Jose", "S\u00e3o Paulo", "Santos", "Port of Spain", "Porto",
+            "Yokohama", "New York");
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void mappedIndexAnswersLikeTheInMemoryOne() throws IOException {
+        MappedSuggestionIndex mapped = MappedSuggestionIndex.open(build(CITIES));
+        SuggestionIndex index = new SuggestionIndex(CITIES);
+        assertEquals(index.size(), mapped.size());
+
+        // Prefixes of whole values, word starts inside them, both, and neither.
+        String[] queries = { "", "n", "new", "NEW Y", "york", "yo", "s", "sao", "por", "spain",
+                "of s", "zz" };
+        for (String query : queries) {
+            for (int limit = 1; limit <= CITIES.size(); limit++) {
+                assertEquals(query + " " + limit, query(index, query, limit),
+                        query(mapped, query, limit));
+            }
+        }
+    }
+
+    @Test
+    public void emptyIndexOpens() throws IOException {
+        MappedSuggestionIndex mapped = MappedSuggestionIndex.open(
+                build(new ArrayList<String>()));
+        assertEquals(0, mapped.size());
+        assertEquals(0, query(mapped, "a", 5).size());
+    }
+
+    @Test
+    public void badMagicIsRejected() throws IOException {
+        File file = build(CITIES);
+        writeInt(file, 0, 0x12345678);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void truncatedFilesAreRejected() throws IOException {
+        File file = build(CITIES);
+        long length = file.length();
+
+        truncate(file, length - 1);
+        assertOpenFails(file);
+        // Only part of the offset tables remain.
+        truncate(file, 24);
+        assertOpenFails(file);
+        truncate(file, 10);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void corruptOffsetsAreRejected() throws IOException {
+        File file = build(CITIES);
+        // The second key offset, pointing before the first key's start.
+        writeInt(file, 20, -4);
+        assertOpenFails(file);
+
+        file = build(CITIES);
+        // A key offset far past the end of the file.
+        writeInt(file, 20, Integer.MAX_VALUE);
+        assertOpenFails(file);
+    }
+
+    private File build(List<String> values) throws IOException {
+        MappedSuggestionIndex.Builder builder = new MappedSuggestionIndex.Builder();
+        for (String value : values) {
+            builder.add(value);
+        }
+        File file = mFolder.newFile();
+        builder.writeTo(file);
+        return file;
+    }
+
+    private static void writeInt(File file, long position, int value) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(position);
+            raf.writeInt(value);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static void assertOpenFails(File file) {
+        try {
+            MappedSuggestionIndex.open(file);
+            fail("Opened " + file.length() + " bytes");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static List<String> query(SuggestionSource source, String query, int limit) {
+        List<String> out = new ArrayList<String>();
+        source.query(query, limit, out);
+        return out;
+    }
+}
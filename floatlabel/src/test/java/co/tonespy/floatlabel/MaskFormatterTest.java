@@ -0,0 +1,128 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MaskFormatterTest {
+
+    private static final InputMask PHONE = new InputMask("(###) ###-####");
+
+    private MaskFormatter mFormatter;
+    private CharArrayEditable mText;
+
+    @Before
+    public void setUp() {
+        mFormatter = new MaskFormatter(PHONE);
+        mText = new CharArrayEditable(32);
+    }
+
+    @Test
+    public void typingInsertsLiterals() {
+        type("555");
+        assertEquals("(555", mText.toString());
+        type("1234567");
+        assertEquals("(555) 123-4567", mText.toString());
+    }
+
+    @Test
+    public void rejectedAndExtraCharactersAreDropped() {
+        type("x");
+        assertEquals("", mText.toString());
+        type("55a5-1");
+        assertEquals("(555) 1", mText.toString());
+        type("2345678");
+        assertEquals("(555) 123-4567", mText.toString());
+    }
+
+    @Test
+    public void backspaceDropsTrailingLiterals() {
+        type("5551");
+        backspace(mText.length());
+        assertEquals("(555", mText.toString());
+        backspace(mText.length());
+        backspace(mText.length());
+        backspace(mText.length());
+        assertEquals("", mText.toString());
+    }
+
+    @Test
+    public void backspaceOverInnerLiteralDeletesTheDigitBeforeIt() {
+        type("555123");
+        backspace(5);
+        assertEquals("(551) 23", mText.toString());
+
+        mText.clear();
+        type("555123");
+        backspace(6);
+        assertEquals("(551) 23", mText.toString());
+
+        mText.clear();
+        type("5551234");
+        backspace(10);
+        assertEquals("(555) 124", mText.toString());
+    }
+
+    @Test
+    public void existingTextIsFormattedWhole() {
+        mText.append("5551234567");
+        mFormatter.format(mText);
+        assertEquals("(555) 123-4567", mText.toString());
+        mFormatter.format(mText);
+        assertEquals("(555) 123-4567", mText.toString());
+    }
+
+    @Test
+    public void slotsAcceptTheirKindOfCharacter() {
+        mFormatter = new MaskFormatter(new InputMask("AA-**"));
+        type("a1b-c2");
+        assertEquals("ab-c2", mText.toString());
+
+        StringBuilder raw = new StringBuilder();
+        mFormatter.getMask().unmask(mText, raw);
+        assertEquals("abc2", raw.toString());
+    }
+
+    @Test
+    public void keystrokesAllocateNothing() {
+        Runnable typeAndErase = new Runnable() {
+
+            @Override
+            public void run() {
+                mText.clear();
+                type("5551234567");
+                while (mText.length() > 0) {
+                    backspace(mText.length());
+                }
+            }
+        };
+        for (int i = 0; i < 1000; i++) {
+            typeAndErase.run();
+        }
+        assertEquals(0, Allocations.measure(typeAndErase));
+    }
+
+    /**
+     * Appends {@code keys} one at a time, notifying the formatter as a TextView would.
+     */
+    private void type(CharSequence keys) {
+        for (int i = 0; i < keys.length(); i++) {
+            int start = mText.length();
+            mFormatter.beforeTextChanged(mText, start, 0, 1);
+            mText.insert(start, keys, i, i + 1);
+            mFormatter.onTextChanged(mText, start, 0, 1);
+            mFormatter.afterTextChanged(mText);
+        }
+    }
+
+    /**
+     * Deletes the character before {@code cursor}, notifying the formatter.
+     */
+    private void backspace(int cursor) {
+        mFormatter.beforeTextChanged(mText, cursor - 1, 1, 0);
+        mText.delete(cursor - 1, cursor);
+        mFormatter.onTextChanged(mText, cursor - 1, 1, 0);
+        mFormatter.afterTextChanged(mText);
+    }
+}
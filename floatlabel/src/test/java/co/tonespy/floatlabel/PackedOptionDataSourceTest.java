@@ -0,0 +1,39 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class PackedOptionDataSourceTest {
+
+    @Test
+    public void optionsSharingALabelAreAllFound() {
+        PackedOptionDataSource source = new PackedOptionDataSource(PackedStringStore.of(
+                "Springfield", "Boston", "Springfield", "R\u00e9sum\u00e9", "resume"));
+        int[] out = new int[10];
+
+        int count = source.search("spring", out);
+        assertEquals(2, count);
+        int[] found = Arrays.copyOf(out, count);
+        Arrays.sort(found);
+        assertEquals(0, found[0]);
+        assertEquals(2, found[1]);
+
+        count = source.search("resu", out);
+        assertEquals(2, count);
+        found = Arrays.copyOf(out, count);
+        Arrays.sort(found);
+        assertEquals(3, found[0]);
+        assertEquals(4, found[1]);
+    }
+
+    @Test
+    public void suggestionIndexStillDropsDuplicatesByDefault() {
+        SuggestionIndex index = new SuggestionIndex("Springfield", "Springfield", "Boston");
+        assertEquals(2, index.size());
+        assertEquals(3, new SuggestionIndex(PackedStringStore.of("Springfield", "Springfield",
+                "Boston"), true).size());
+    }
+}
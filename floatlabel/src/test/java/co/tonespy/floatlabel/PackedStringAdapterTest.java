@@ -0,0 +1,41 @@
+package co.tonespy.floatlabel;
+
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PackedStringAdapterTest {
+
+    @Test
+    public void rowsShowTheirEntryAndAreReused() {
+        PackedStringAdapter adapter = new PackedStringAdapter(RuntimeEnvironment.application,
+                PackedStringStore.of("Lagos", "Abuja", "Kano"));
+        FrameLayout parent = new FrameLayout(RuntimeEnvironment.application);
+        assertEquals(3, adapter.getCount());
+        assertEquals(1, adapter.getItemId(1));
+
+        View row = adapter.getView(0, null, parent);
+        assertEquals("Lagos", textOf(row));
+        assertSame(row, adapter.getView(2, row, parent));
+        assertEquals("Kano", textOf(row));
+        assertEquals("Abuja", textOf(adapter.getDropDownView(1, null, parent)));
+    }
+
+    private static String textOf(View row) {
+        TextView text = row instanceof TextView
+                ? (TextView) row
+                : (TextView) row.findViewById(android.R.id.text1);
+        return text.getText().toString();
+    }
+}
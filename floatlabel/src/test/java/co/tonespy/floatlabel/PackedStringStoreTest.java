@@ -0,0 +1,90 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PackedStringStoreTest {
+
+    @Test
+    public void entriesRoundTrip() {
+        PackedStringStore store = PackedStringStore.of("Lagos", "", "Abuja", "Port Harcourt");
+        assertEquals(4, store.size());
+        assertEquals("Lagos", store.get(0));
+        assertEquals("", store.get(1));
+        assertEquals(0, store.length(1));
+        assertEquals("Port Harcourt", store.get(3));
+        assertEquals('b', store.charAt(2, 1));
+
+        char[] dest = new char[7];
+        store.getChars(2, dest, 1);
+        assertEquals("Abuja", new String(dest, 1, 5));
+    }
+
+    @Test
+    public void builderGrowsPastItsExpectedSize() {
+        PackedStringStore.Builder builder = new PackedStringStore.Builder(1);
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longValue.append(i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            builder.add(i == 500 ? longValue : "value " + i);
+        }
+        PackedStringStore store = builder.build();
+        assertEquals(1000, store.size());
+        assertEquals("value 999", store.get(999));
+        assertEquals(longValue.toString(), store.get(500));
+    }
+
+    @Test
+    public void invalidIndexThrows() {
+        PackedStringStore store = PackedStringStore.of("a");
+        try {
+            store.get(1);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            store.length(-1);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void readingInPlaceCreatesNoStrings() {
+        final PackedStringStore store = PackedStringStore.of("Kaduna", "Kano", "Katsina");
+        final char[] dest = new char[16];
+        final int[] checksum = new int[1];
+        Runnable read = new Runnable() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < store.size(); i++) {
+                    for (int j = 0; j < store.length(i); j++) {
+                        checksum[0] += store.charAt(i, j);
+                    }
+                    store.getChars(i, dest, 0);
+                }
+            }
+        };
+        read.run();
+        assertEquals(0, Allocations.measure(read));
+    }
+
+    @Test
+    public void optionSourceLoadsOnlyTheRequestedPage() {
+        PackedOptionDataSource source = new PackedOptionDataSource(
+                PackedStringStore.of("Select", "Lagos", "Abuja", "Kano"));
+        List<String> page = new ArrayList<String>();
+        source.loadOptions(1, 10, page);
+        assertEquals(3, page.size());
+        assertEquals("Lagos", page.get(0));
+        assertEquals("Kano", page.get(2));
+    }
+}
@@ -0,0 +1,105 @@
+package co.tonespy.floatlabel;
+
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SuggestionAdapterTest {
+
+    private static final String UNTOUCHED = "untouched";
+
+    @Test
+    public void onlyRowsWhoseValueMovedAreRebound() {
+        SuggestionAdapter adapter = new SuggestionAdapter(RuntimeEnvironment.application,
+                (SuggestionSource) null);
+        FrameLayout parent = new FrameLayout(RuntimeEnvironment.application);
+        List<String> first = Arrays.asList("Kaduna", "Kano", "Katsina");
+        deliver(adapter, Collections.<String>emptyList(), first);
+        View row0 = adapter.getView(0, null, parent);
+        View row1 = adapter.getView(1, null, parent);
+        assertEquals("Kaduna", textOf(row0));
+        assertEquals("Kano", textOf(row1));
+
+        // Mark both rows, so a rebind shows up as the text changing back.
+        text(row0).setText(UNTOUCHED);
+        text(row1).setText(UNTOUCHED);
+        deliver(adapter, first, Arrays.asList("Kaduna", "Katsina"));
+
+        assertEquals(UNTOUCHED, textOf(adapter.getView(0, row0, parent)));
+        assertEquals("Katsina", textOf(adapter.getView(1, row1, parent)));
+    }
+
+    @Test
+    public void rowsFromAnOlderBatchAreRebound() {
+        SuggestionAdapter adapter = new SuggestionAdapter(RuntimeEnvironment.application,
+                (SuggestionSource) null);
+        FrameLayout parent = new FrameLayout(RuntimeEnvironment.application);
+        List<String> first = Arrays.asList("Lagos", "Lokoja");
+        List<String> second = Arrays.asList("Lagos", "Lafia");
+        deliver(adapter, Collections.<String>emptyList(), first);
+        View row = adapter.getView(0, null, parent);
+        text(row).setText(UNTOUCHED);
+        deliver(adapter, first, second);
+        deliver(adapter, second, Arrays.asList("Lagos"));
+
+        assertEquals("Lagos", textOf(adapter.getView(0, row, parent)));
+    }
+
+    @Test
+    public void diffAgainstAnotherBatchRebindsEveryRow() {
+        SuggestionAdapter adapter = new SuggestionAdapter(RuntimeEnvironment.application,
+                (SuggestionSource) null);
+        FrameLayout parent = new FrameLayout(RuntimeEnvironment.application);
+        List<String> first = Arrays.asList("Kaduna", "Kano");
+        deliver(adapter, Collections.<String>emptyList(), first);
+        View row0 = adapter.getView(0, null, parent);
+        View row1 = adapter.getView(1, null, parent);
+
+        // Both later batches were diffed against the first one: the third was computed
+        // before the second reached the adapter.
+        List<String> second = Arrays.asList("Kano", "Kaduna");
+        List<String> third = Arrays.asList("Kaduna", "Kano");
+        SuggestionDiff secondDiff = SuggestionDiff.compute(first, second);
+        SuggestionDiff thirdDiff = SuggestionDiff.compute(first, third);
+        adapter.onSuggestionsReady("k", second, secondDiff);
+        assertEquals("Kano", textOf(adapter.getView(0, row0, parent)));
+        assertEquals("Kaduna", textOf(adapter.getView(1, row1, parent)));
+
+        text(row0).setText(UNTOUCHED);
+        text(row1).setText(UNTOUCHED);
+        adapter.onSuggestionsReady("ka", third, thirdDiff);
+        assertEquals("Kaduna", adapter.getItem(0));
+        assertEquals("Kaduna", textOf(adapter.getView(0, row0, parent)));
+        assertEquals("Kano", textOf(adapter.getView(1, row1, parent)));
+    }
+
+    private static void deliver(SuggestionAdapter adapter, List<String> previous,
+                                List<String> suggestions) {
+        adapter.onSuggestionsReady("", suggestions, SuggestionDiff.compute(previous,
+                suggestions));
+    }
+
+    private static TextView text(View row) {
+        return row instanceof TextView
+                ? (TextView) row
+                : (TextView) row.findViewById(android.R.id.text1);
+    }
+
+    private static String textOf(View row) {
+        return text(row).getText().toString();
+    }
+}
@@ -0,0 +1,83 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SuggestionDiffTest {
+
+    @Test
+    public void equalListsHaveNoChanges() {
+        List<String> list = Arrays.asList("Kano", "Kaduna", "Katsina");
+        SuggestionDiff diff = SuggestionDiff.compute(list, Arrays.asList("Kano", "Kaduna",
+                "Katsina"));
+        assertTrue(diff.isEmpty());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(i, diff.getNewPosition(i));
+            assertEquals(i, diff.getOldPosition(i));
+        }
+    }
+
+    @Test
+    public void narrowingRemovesFromTheMiddle() {
+        SuggestionDiff diff = SuggestionDiff.compute(
+                Arrays.asList("Kaduna", "Kano", "Katsina", "Kebbi"),
+                Arrays.asList("Kaduna", "Katsina"));
+        assertEquals(2, diff.getRemoveCount());
+        assertEquals(0, diff.getInsertCount());
+        assertEquals(0, diff.getNewPosition(0));
+        assertEquals(-1, diff.getNewPosition(1));
+        assertEquals(1, diff.getNewPosition(2));
+        assertEquals(-1, diff.getNewPosition(3));
+        assertEquals(0, diff.getOldPosition(0));
+        assertEquals(2, diff.getOldPosition(1));
+    }
+
+    @Test
+    public void insertionsShiftTheRowsAfterThem() {
+        SuggestionDiff diff = SuggestionDiff.compute(
+                Arrays.asList("Lagos", "Lokoja"),
+                Arrays.asList("Lafia", "Lagos", "Lekki", "Lokoja"));
+        assertFalse(diff.isEmpty());
+        assertEquals(0, diff.getRemoveCount());
+        assertEquals(2, diff.getInsertCount());
+        assertEquals(-1, diff.getOldPosition(0));
+        assertEquals(0, diff.getOldPosition(1));
+        assertEquals(-1, diff.getOldPosition(2));
+        assertEquals(1, diff.getOldPosition(3));
+        assertEquals(1, diff.getNewPosition(0));
+        assertEquals(3, diff.getNewPosition(1));
+    }
+
+    @Test
+    public void replacedMiddleKeepsHeadAndTail() {
+        SuggestionDiff diff = SuggestionDiff.compute(
+                Arrays.asList("Abuja", "Enugu", "Ibadan", "Jos"),
+                Arrays.asList("Abuja", "Ilorin", "Jos"));
+        assertEquals(2, diff.getRemoveCount());
+        assertEquals(1, diff.getInsertCount());
+        assertEquals(0, diff.getOldPosition(0));
+        assertEquals(-1, diff.getOldPosition(1));
+        assertEquals(3, diff.getOldPosition(2));
+        assertEquals(2, diff.getNewPosition(3));
+    }
+
+    @Test
+    public void emptyListsOnEitherSide() {
+        List<String> empty = Collections.emptyList();
+        List<String> list = Arrays.asList("Kano", "Kaduna");
+        SuggestionDiff added = SuggestionDiff.compute(empty, list);
+        assertEquals(2, added.getInsertCount());
+        assertEquals(-1, added.getOldPosition(1));
+        SuggestionDiff cleared = SuggestionDiff.compute(list, empty);
+        assertEquals(2, cleared.getRemoveCount());
+        assertEquals(-1, cleared.getNewPosition(0));
+        assertTrue(SuggestionDiff.compute(empty, empty).isEmpty());
+    }
+}
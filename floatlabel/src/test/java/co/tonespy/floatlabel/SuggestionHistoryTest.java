@@ -0,0 +1,75 @@
+package co.tonespy.floatlabel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SuggestionHistoryTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void tornLastRecordIsCutOffTheLog() throws IOException {
+        File file = mFolder.newFile("history");
+        long now = System.currentTimeMillis();
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        writeUse(out, "Oslo", now);
+        writeUse(out, "Bergen", now);
+        int complete = out.size();
+        // A record cut short in the middle of its value.
+        out.writeByte(1);
+        out.writeShort(20);
+        out.writeBytes("Trond");
+        out.close();
+
+        SuggestionHistory history = new SuggestionHistory(file);
+        history.load();
+
+        assertEquals(2, history.size());
+        assertEquals(complete, file.length());
+    }
+
+    @Test
+    public void secondLoadDoesNotCountTheLogAgain() throws IOException {
+        File file = mFolder.newFile("history");
+        long now = System.currentTimeMillis();
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        writeUse(out, "Bergen", now);
+        writeUse(out, "Bergen", now);
+        out.close();
+
+        SuggestionHistory history = new SuggestionHistory(file);
+        history.load();
+        history.load();
+        for (int i = 0; i < 3; i++) {
+            history.record("Berlin");
+        }
+
+        List<String> results = new ArrayList<String>();
+        history.query("ber", 2, results);
+        assertEquals("Berlin", results.get(0));
+        assertEquals("Bergen", results.get(1));
+    }
+
+    private static void writeUse(DataOutputStream out, String value, long time)
+            throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+        out.writeLong(time);
+    }
+}